@@ -0,0 +1,66 @@
+package com.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Only active when a replica is configured; otherwise Boot's single auto-configured pool is used.
+//
+// The application DataSource is a LazyConnectionDataSourceProxy: it hands out a placeholder
+// connection and only fetches a real one at the first statement, by which point the transaction
+// manager has marked it read-only or not. Read-only transactions then draw from the replica pool,
+// everything else from the primary.
+@Configuration
+@ConditionalOnProperty(prefix = "banking.datasource.replica", name = "url")
+public class DataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("banking.datasource.replica.hikari")
+    public HikariDataSource replicaPool(@Value("${banking.datasource.replica.url}") String url,
+                                       @Value("${banking.datasource.replica.username:}") String username,
+                                       @Value("${banking.datasource.replica.password:}") String password,
+                                       DataSourceProperties primaryProperties) {
+        // Credentials and driver default to the primary's
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? primaryProperties.determineUsername() : username)
+                .password(password.isEmpty() ? primaryProperties.determinePassword() : password)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .build();
+        pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+    
+    @Bean
+    public ReplicaDataSource replicaDataSource(@Qualifier("replicaPool") HikariDataSource replicaPool,
+                                               @Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+        return new ReplicaDataSource(replicaPool, primaryDataSource);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primaryDataSource);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        return routing;
+    }
+}
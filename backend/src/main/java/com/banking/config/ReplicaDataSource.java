@@ -0,0 +1,109 @@
+package com.banking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Source of read-only connections. Hands out replica connections while the replica is reachable
+// and within banking.datasource.replica.max-lag-ms of the primary; otherwise reads fall back to
+// the primary so they never see data older than the lag bound.
+public class ReplicaDataSource extends DelegatingDataSource {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+    
+    private final DataSource primary;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${banking.datasource.replica.max-lag-ms:1000}")
+    private long maxLagMs;
+    
+    // Seconds the replica is behind, or null when its WAL receiver is not streaming: a disconnected
+    // or stalled standby has replayed everything it received and would otherwise read as caught up.
+    // 0 once it has replayed all the WAL it received: the time since the last replayed transaction
+    // keeps growing while the primary is idle, so it only counts while replay is behind. Reading the
+    // receiver's status needs pg_read_all_stats (or pg_monitor) on the replica user; without it the
+    // status is null and reads stay on the primary.
+    @Value("${banking.datasource.replica.lag-query:SELECT CASE " +
+            "WHEN (SELECT status FROM pg_stat_wal_receiver) IS DISTINCT FROM 'streaming' THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END}")
+    private String lagQuery;
+    
+    // Starts unhealthy so nothing is read from the replica before the first lag check
+    private volatile boolean healthy;
+    private volatile long lagMs = -1;
+    
+    private Counter replicaReads;
+    private Counter fallbackReads;
+    
+    public ReplicaDataSource(DataSource replica, DataSource primary) {
+        super(replica);
+        this.primary = primary;
+    }
+    
+    @PostConstruct
+    void init() {
+        replicaReads = meterRegistry.counter("banking.datasource.reads", "target", "replica");
+        fallbackReads = meterRegistry.counter("banking.datasource.reads", "target", "primary");
+        meterRegistry.gauge("banking.datasource.replica.lag", this, replica -> replica.lagMs);
+        checkLag();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (healthy) {
+            try {
+                Connection connection = super.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                healthy = false;
+                log.warn("Replica unavailable, reading from primary until the next lag check: {}", e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+    
+    @Scheduled(fixedDelayString = "${banking.datasource.replica.lag-check-ms:1000}")
+    public void checkLag() {
+        try (Connection connection = super.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            // No row or null: the lag is unknown, which counts as beyond any bound
+            Number seconds = rs.next() ? (Number) rs.getObject(1) : null;
+            boolean known = seconds != null;
+            lagMs = known ? (long) (seconds.doubleValue() * 1000) : -1;
+            boolean withinBound = known && lagMs <= maxLagMs;
+            if (withinBound != healthy) {
+                log.info("Replica lag {}, routing reads to {}", known ? lagMs + " ms" : "unknown (not streaming)",
+                        withinBound ? "replica" : "primary");
+            }
+            healthy = withinBound;
+        } catch (SQLException e) {
+            lagMs = -1;
+            if (healthy) {
+                log.warn("Replica lag check failed, reading from primary: {}", e.getMessage());
+            }
+            healthy = false;
+        }
+    }
+    
+    public boolean isHealthy() {
+        return healthy;
+    }
+}
@@ -0,0 +1,118 @@
+package com.banking.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Indexes JPA cannot declare (partial and expression indexes) are kept in db/indexes-postgresql.sql and
+// db/indexes.sql for everything else. In production the script runs as a migration, once, with
+// psql or by starting a single instance with --apply-schema-indexes, rather than on every boot of
+// every instance; banking.schema.apply-index-script=true applies it at each start for the
+// development and test databases Hibernate rebuilds. Either way startup fails if an index the
+// script creates is missing or invalid, rather than leaving the queries that rely on it to scan
+// the table.
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaIndexes {
+
+    // Index and table names of each CREATE INDEX in the script
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE INDEX (?:CONCURRENTLY )?IF NOT EXISTS (\\w+) ON (\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationArguments args;
+
+    @Value("${banking.schema.apply-index-script:true}")
+    private boolean applyScript;
+
+    @PostConstruct
+    void init() {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            String script = postgres ? "db/indexes-postgresql.sql" : "db/indexes.sql";
+            Resource resource = new ClassPathResource(script);
+            if (applyScript || args.containsOption("apply-schema-indexes")) {
+                // CONCURRENTLY cannot run inside a transaction block
+                connection.setAutoCommit(true);
+                ScriptUtils.executeSqlScript(connection, resource);
+            }
+
+            Map<String, List<String>> required = new LinkedHashMap<>();
+            Matcher matcher = CREATE_INDEX.matcher(resource.getContentAsString(StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                required.computeIfAbsent(matcher.group(2), table -> new ArrayList<>()).add(matcher.group(1));
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (Map.Entry<String, List<String>> table : required.entrySet()) {
+                Set<String> present = postgres
+                        ? validPostgresIndexes(connection, table.getKey())
+                        : indexes(connection, table.getKey());
+                for (String index : table.getValue()) {
+                    if (!present.contains(index)) {
+                        missing.add(index);
+                    }
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Missing or invalid indexes " + missing + "; drop any INVALID ones and run " + script);
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not check the schema indexes", e);
+        }
+    }
+
+    // Leaves out indexes a failed concurrent build left behind, which the planner never uses
+    private Set<String> validPostgresIndexes(Connection connection, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT c.relname FROM pg_index i " +
+                     "JOIN pg_class c ON c.oid = i.indexrelid WHERE i.indisvalid AND i.indrelid = '" + table + "'::regclass")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private Set<String> indexes(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> names = new HashSet<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+            while (rs.next()) {
+                if (rs.getString("INDEX_NAME") != null) {
+                    names.add(rs.getString("INDEX_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
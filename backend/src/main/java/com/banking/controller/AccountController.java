@@ -1,12 +1,14 @@
 package com.banking.controller;
 
+import com.banking.dto.AccountSummary;
 import com.banking.model.Account;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
+import com.banking.service.AccountCache;
 import com.banking.service.AccountService;
 import com.banking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -26,14 +28,15 @@ public class AccountController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AccountCache accountCache;
+    
     @GetMapping("/balance")
-    public ResponseEntity<?> getBalance(Authentication authentication) {
+    public ResponseEntity<?> getBalance(AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
-            Account account = accountService.findPrimaryAccount(user.getUserId())
+            AccountSummary account = accountCache.findPrimaryAccount(user.getUserId())
                     .orElseThrow(() -> new RuntimeException("Account not found"));
             
             Map<String, Object> response = new HashMap<>();
@@ -41,8 +44,8 @@ public class AccountController {
             response.put("accountNumber", account.getAccountNumber());
             response.put("balance", account.getBalance());
             response.put("accountType", account.getAccountType());
-            response.put("branchCode", account.getBranch().getBranchCode());
-            response.put("branchName", account.getBranch().getBranchName());
+            response.put("branchCode", account.getBranchCode());
+            response.put("branchName", account.getBranchName());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -53,13 +56,11 @@ public class AccountController {
     }
     
     @GetMapping("/all")
-    public ResponseEntity<?> getAllAccounts(Authentication authentication) {
+    public ResponseEntity<?> getAllAccounts(AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
-            List<Account> accounts = accountService.findAccountsByUser(user);
+            List<AccountSummary> accounts = accountService.findAccountSummaries(user.getUserId());
             
             return ResponseEntity.ok(accounts);
         } catch (Exception e) {
@@ -70,11 +71,9 @@ public class AccountController {
     }
     
     @GetMapping("/{accountId}/balance")
-    public ResponseEntity<?> getAccountBalance(@PathVariable UUID accountId, Authentication authentication) {
+    public ResponseEntity<?> getAccountBalance(@PathVariable UUID accountId, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
             Account account = accountService.findById(accountId)
                     .orElseThrow(() -> new RuntimeException("Account not found"));
@@ -99,11 +98,9 @@ public class AccountController {
     }
     
     @PostMapping("/create")
-    public ResponseEntity<?> createAccount(@RequestParam String branchCode, Authentication authentication) {
+    public ResponseEntity<?> createAccount(@RequestParam String branchCode, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
             Account account = accountService.createAccount(user, branchCode);
             
@@ -1,20 +1,37 @@
 package com.banking.controller;
 
+import com.banking.dto.AlertLine;
+import com.banking.dto.AlertResolveRequest;
+import com.banking.dto.AlertResolveResult;
+import com.banking.dto.CursorPage;
+import com.banking.dto.FraudReplayReport;
+import com.banking.dto.HighValueTransaction;
 import com.banking.model.Alert;
 import com.banking.model.Loan;
 import com.banking.model.LoanStatus;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.JwtUtil;
+import com.banking.service.AlertHub;
 import com.banking.service.AlertService;
+import com.banking.service.ExpenseRollupService;
 import com.banking.service.LoanService;
 import com.banking.service.TransactionService;
 import com.banking.service.UserService;
+import com.banking.service.fraud.FraudRuleEngine;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,12 +49,24 @@ public class AdminController {
     @Autowired
     private AlertService alertService;
     
+    @Autowired
+    private AlertHub alertHub;
+    
     @Autowired
     private TransactionService transactionService;
     
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
     @GetMapping("/loans/pending")
     public ResponseEntity<?> getPendingLoans() {
         try {
@@ -51,11 +80,9 @@ public class AdminController {
     }
     
     @PostMapping("/loans/{loanId}/approve")
-    public ResponseEntity<?> approveLoan(@PathVariable UUID loanId, Authentication authentication) {
+    public ResponseEntity<?> approveLoan(@PathVariable UUID loanId, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User admin = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Admin not found"));
+            User admin = userService.getReference(currentUser);
             
             Loan loan = loanService.approveLoan(loanId, admin);
             
@@ -74,11 +101,9 @@ public class AdminController {
     }
     
     @PostMapping("/loans/{loanId}/reject")
-    public ResponseEntity<?> rejectLoan(@PathVariable UUID loanId, Authentication authentication) {
+    public ResponseEntity<?> rejectLoan(@PathVariable UUID loanId, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User admin = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Admin not found"));
+            User admin = userService.getReference(currentUser);
             
             Loan loan = loanService.rejectLoan(loanId, admin);
             
@@ -94,11 +119,65 @@ public class AdminController {
         }
     }
     
+    // The alert queue, a page at a time (unresolved unless resolved=true); the counts come from
+    // memory and cover every unresolved alert, not just the filtered page
     @GetMapping("/transactions/alerts")
-    public ResponseEntity<?> getSuspiciousTransactions() {
+    public ResponseEntity<?> getSuspiciousTransactions(@RequestParam(required = false) String type,
+                                                       @RequestParam(required = false) UUID accountId,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                       @RequestParam(defaultValue = "false") boolean resolved,
+                                                       @RequestParam(defaultValue = "50") int limit,
+                                                       @RequestParam(required = false) String cursor) {
         try {
-            List<Alert> alerts = alertService.getUnresolvedAlerts();
-            return ResponseEntity.ok(alerts);
+            CursorPage<AlertLine> page = alertService.getAlertQueue(resolved, type, accountId, from, to, cursor, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("alerts", page.getItems());
+            response.put("next", page.getNext());
+            response.put("unresolvedByType", alertService.getUnresolvedAlertCounts());
+            response.put("unresolved", alertService.getUnresolvedAlertTotal());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Alerts as they are raised and resolved. A console loads /transactions/alerts once, then follows
+    // this stream instead of polling; on reconnect the browser's Last-Event-ID replays what it missed.
+    // Browsers open it with ?token= from /alerts/stream-token; a console that has to open a new
+    // EventSource (its token expired) passes the last id it saw as ?lastEventId= instead.
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   @RequestParam(value = "lastEventId", required = false) String resumeFrom) {
+        return alertHub.subscribe(lastEventId != null ? lastEventId : resumeFrom);
+    }
+    
+    @PostMapping("/alerts/stream-token")
+    public ResponseEntity<?> streamToken(AuthenticatedUser currentUser) {
+        Map<String, String> response = new HashMap<>();
+        response.put("token", jwtUtil.generateStreamToken(currentUser));
+        return ResponseEntity.ok(response);
+    }
+    
+    // Bulk resolution by ids or by filter, for clearing what a misfiring rule raised
+    @PostMapping("/alerts/resolve")
+    public ResponseEntity<?> resolveAlerts(@Valid @RequestBody AlertResolveRequest request, AuthenticatedUser currentUser) {
+        try {
+            User admin = userService.getReference(currentUser);
+            
+            AlertResolveResult result = alertService.resolveAlerts(request, admin);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Alerts resolved successfully");
+            response.put("resolved", result.getResolved());
+            response.put("skipped", result.getSkipped());
+            response.put("chunks", result.getChunks());
+            
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -107,11 +186,9 @@ public class AdminController {
     }
     
     @PostMapping("/alerts/{alertId}/resolve")
-    public ResponseEntity<?> resolveAlert(@PathVariable UUID alertId, Authentication authentication) {
+    public ResponseEntity<?> resolveAlert(@PathVariable UUID alertId, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User admin = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Admin not found"));
+            User admin = userService.getReference(currentUser);
             
             Alert alert = alertService.resolveAlert(alertId, admin);
             
@@ -127,14 +204,40 @@ public class AdminController {
         }
     }
     
+    // Backfill after loading expenses outside addExpense
+    @PostMapping("/expenses/rollups/rebuild")
+    public ResponseEntity<?> rebuildExpenseRollups() {
+        try {
+            int users = expenseRollupService.rebuild();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Expense rollups rebuilt");
+            response.put("users", users);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/transactions/high-value")
-    public ResponseEntity<?> getHighValueTransactions(@RequestParam(defaultValue = "100000") BigDecimal threshold) {
+    public ResponseEntity<?> getHighValueTransactions(@RequestParam(defaultValue = "100000") BigDecimal threshold,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size) {
         try {
-            List<com.banking.model.Transaction> transactions = transactionService.getHighValueTransactions(threshold);
+            Slice<HighValueTransaction> transactions =
+                    transactionService.getHighValueTransactions(threshold, from, to, page, size);
             
             Map<String, Object> response = new HashMap<>();
             response.put("threshold", threshold);
-            response.put("transactions", transactions);
+            response.put("page", page);
+            response.put("size", size);
+            response.put("hasNext", transactions.hasNext());
+            response.put("transactions", transactions.getContent());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -144,6 +247,21 @@ public class AdminController {
         }
     }
     
+    // Dry run of the fraud rules over past postings (default: the last day); no alerts are saved
+    @PostMapping("/fraud/replay")
+    public ResponseEntity<?> replayFraudRules(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            FraudReplayReport report = fraudRuleEngine.replay(from != null ? from : end.minusDays(1), end);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/reports/branch")
     public ResponseEntity<?> getBranchReports(@RequestParam(required = false) String branchCode) {
         try {
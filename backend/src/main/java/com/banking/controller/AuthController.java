@@ -3,6 +3,7 @@ package com.banking.controller;
 import com.banking.dto.LoginRequest;
 import com.banking.dto.RegisterRequest;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
 import com.banking.security.JwtUtil;
 import com.banking.service.AccountService;
 import com.banking.service.UserService;
@@ -12,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -63,11 +63,11 @@ public class AuthController {
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
             
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
             User user = userService.findByUsername(request.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
-            String token = jwtUtil.generateToken(userDetails.getUsername(), user.getRole().name());
+            String token = jwtUtil.generateToken(principal);
             
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
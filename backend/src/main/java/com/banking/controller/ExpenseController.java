@@ -1,13 +1,16 @@
 package com.banking.controller;
 
+import com.banking.dto.ExpenseImportReport;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
 import com.banking.service.ExpenseService;
 import com.banking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -26,11 +29,9 @@ public class ExpenseController {
     private UserService userService;
 
     @PostMapping("/add")
-    public ResponseEntity<?> addExpense(@RequestBody Map<String, Object> payload, Authentication authentication) {
+    public ResponseEntity<?> addExpense(@RequestBody Map<String, Object> payload, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             String dateStr = (String) payload.get("date");
             String category = (String) payload.get("category");
@@ -56,13 +57,36 @@ public class ExpenseController {
         }
     }
 
+    // Body is the file itself: CSV with a header row naming date, category, amount (and optionally
+    // note), or NDJSON with one {"date", "category", "amount", "note"} object per line
+    @PostMapping("/import")
+    public ResponseEntity<?> importExpenses(@RequestParam(required = false) String format,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            InputStream body,
+                                            AuthenticatedUser currentUser) {
+        try {
+            User user = userService.getReference(currentUser);
+
+            String resolved = format != null ? format
+                    : contentType != null && contentType.contains("ndjson") ? "ndjson" : "csv";
+            if (!ExpenseService.IMPORT_FORMATS.contains(resolved)) {
+                throw new RuntimeException("format must be csv or ndjson");
+            }
+
+            ExpenseImportReport report = expenseService.importExpenses(user, resolved, body);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @GetMapping("/summary/monthly")
     public ResponseEntity<?> getMonthlySummary(@RequestParam(defaultValue = "6") int months,
-                                               Authentication authentication) {
+                                               AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             Map<String, BigDecimal> summary = expenseService.getMonthlySummary(user, months);
             return ResponseEntity.ok(summary);
@@ -75,11 +99,9 @@ public class ExpenseController {
 
     @GetMapping("/summary/daily")
     public ResponseEntity<?> getDailySummary(@RequestParam("month") String month,
-                                             Authentication authentication) {
+                                             AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             YearMonth ym = YearMonth.parse(month); // format: YYYY-MM
             Map<Integer, BigDecimal> summary = expenseService.getDailySummaryForMonth(user, ym);
@@ -93,11 +115,9 @@ public class ExpenseController {
 
     @GetMapping("/list")
     public ResponseEntity<?> getExpensesForMonth(@RequestParam("month") String month,
-                                                 Authentication authentication) {
+                                                 AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             YearMonth ym = YearMonth.parse(month);
             return ResponseEntity.ok(expenseService.getExpensesForMonth(user, ym));
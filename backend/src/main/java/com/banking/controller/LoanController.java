@@ -3,12 +3,12 @@ package com.banking.controller;
 import com.banking.dto.LoanRequest;
 import com.banking.model.Loan;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
 import com.banking.service.LoanService;
 import com.banking.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -28,11 +28,9 @@ public class LoanController {
     private UserService userService;
     
     @PostMapping("/apply")
-    public ResponseEntity<?> applyForLoan(@Valid @RequestBody LoanRequest request, Authentication authentication) {
+    public ResponseEntity<?> applyForLoan(@Valid @RequestBody LoanRequest request, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
             Loan loan = loanService.applyForLoan(user, request);
             
@@ -51,15 +49,11 @@ public class LoanController {
     }
     
     @GetMapping("/status")
-    public ResponseEntity<?> getLoanStatus(Authentication authentication) {
+    public ResponseEntity<?> getLoanStatus(AuthenticatedUser currentUser) {
         Map<String, Object> response = new HashMap<>();
         try {
-            if (authentication != null) {
-                String email = authentication.getName();
-                User user = userService.findByEmail(email)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
-                
-                List<Loan> loans = loanService.getUserLoans(user.getUserId());
+            if (currentUser != null) {
+                List<Loan> loans = loanService.getUserLoans(currentUser.getUserId());
                 response.put("loans", loans);
             } else {
                 // No authentication context available – return empty loans list
@@ -74,11 +68,9 @@ public class LoanController {
     }
     
     @GetMapping("/{loanId}")
-    public ResponseEntity<?> getLoanDetails(@PathVariable UUID loanId, Authentication authentication) {
+    public ResponseEntity<?> getLoanDetails(@PathVariable UUID loanId, AuthenticatedUser currentUser) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
             
             Loan loan = loanService.findById(loanId)
                     .orElseThrow(() -> new RuntimeException("Loan not found"));
@@ -1,20 +1,38 @@
 package com.banking.controller;
 
+import com.banking.dto.BatchTransferRequest;
+import com.banking.dto.BatchTransferResult;
+import com.banking.dto.CursorPage;
+import com.banking.dto.HighValueTransaction;
+import com.banking.dto.TransactionLine;
 import com.banking.dto.TransactionRequest;
 import com.banking.model.User;
+import com.banking.security.AuthenticatedUser;
+import com.banking.service.BalanceSnapshotService;
+import com.banking.service.IdempotencyConflictException;
+import com.banking.service.IdempotencyService;
+import com.banking.service.StatementExportService;
 import com.banking.service.TransactionService;
 import com.banking.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/transaction")
@@ -27,10 +45,22 @@ public class TransactionController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private StatementExportService statementExportService;
+    
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
     @PostMapping("/deposit")
-    public ResponseEntity<?> deposit(@Valid @RequestBody TransactionRequest request, Authentication authentication) {
+    public ResponseEntity<?> deposit(@Valid @RequestBody TransactionRequest request,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                     AuthenticatedUser currentUser) {
         try {
-            UUID txnId = transactionService.deposit(request);
+            UUID txnId = post(currentUser, idempotencyKey, "DEPOSIT", request,
+                    () -> transactionService.deposit(request));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Deposit successful");
@@ -38,6 +68,10 @@ public class TransactionController {
             response.put("amount", request.getAmount());
             
             return ResponseEntity.ok(response);
+        } catch (IdempotencyConflictException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -46,9 +80,12 @@ public class TransactionController {
     }
     
     @PostMapping("/withdraw")
-    public ResponseEntity<?> withdraw(@Valid @RequestBody TransactionRequest request, Authentication authentication) {
+    public ResponseEntity<?> withdraw(@Valid @RequestBody TransactionRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      AuthenticatedUser currentUser) {
         try {
-            UUID txnId = transactionService.withdraw(request);
+            UUID txnId = post(currentUser, idempotencyKey, "WITHDRAW", request,
+                    () -> transactionService.withdraw(request));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Withdrawal successful");
@@ -56,6 +93,10 @@ public class TransactionController {
             response.put("amount", request.getAmount());
             
             return ResponseEntity.ok(response);
+        } catch (IdempotencyConflictException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -64,18 +105,20 @@ public class TransactionController {
     }
     
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest request, Authentication authentication) {
+    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      AuthenticatedUser currentUser) {
         try {
             if (request.getToAccountId() == null) {
                 throw new RuntimeException("Destination account ID is required for transfer");
             }
             
-            UUID txnId = transactionService.transfer(
+            UUID txnId = post(currentUser, idempotencyKey, "TRANSFER", request, () -> transactionService.transfer(
                 request.getAccountId(),
                 request.getToAccountId(),
                 request.getAmount(),
                 request.getDescription()
-            );
+            ));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Transfer successful");
@@ -84,6 +127,41 @@ public class TransactionController {
             response.put("fromAccount", request.getAccountId());
             response.put("toAccount", request.getToAccountId());
             
+            return ResponseEntity.ok(response);
+        } catch (IdempotencyConflictException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Requests without an Idempotency-Key keep the plain at-least-once behaviour
+    private UUID post(AuthenticatedUser currentUser, String idempotencyKey, String operation,
+                      TransactionRequest request, Supplier<UUID> posting) {
+        if (idempotencyKey == null) {
+            return posting.get();
+        }
+        return idempotencyService.execute(currentUser != null ? currentUser.getUserId() : null,
+                idempotencyKey, operation, request, posting);
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<?> batchTransfer(@Valid @RequestBody BatchTransferRequest request, Authentication authentication) {
+        try {
+            List<BatchTransferResult> results = transactionService.batchTransfer(request.getTransfers());
+            long succeeded = results.stream().filter(BatchTransferResult::isSuccess).count();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Batch processed");
+            response.put("total", results.size());
+            response.put("succeeded", succeeded);
+            response.put("failed", results.size() - succeeded);
+            response.put("results", results);
+            
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -110,13 +188,35 @@ public class TransactionController {
     }
     
     @GetMapping("/history/{accountId}")
-    public ResponseEntity<?> getTransactionHistory(@PathVariable UUID accountId, Authentication authentication) {
+    public ResponseEntity<?> getTransactionHistory(@PathVariable UUID accountId,
+                                                   @RequestParam(defaultValue = "50") int limit,
+                                                   @RequestParam(required = false) String cursor,
+                                                   Authentication authentication) {
         try {
-            List<com.banking.model.Transaction> history = transactionService.getTransactionHistory(accountId);
+            CursorPage<TransactionLine> page = transactionService.getTransactionHistory(accountId, cursor, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("accountId", accountId);
+            response.put("transactions", page.getItems());
+            response.put("next", page.getNext());
             
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    @GetMapping("/balance-at/{accountId}")
+    public ResponseEntity<?> getBalanceAt(@PathVariable UUID accountId,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                                          Authentication authentication) {
+        try {
             Map<String, Object> response = new HashMap<>();
             response.put("accountId", accountId);
-            response.put("transactions", history);
+            response.put("at", at);
+            response.put("balance", balanceSnapshotService.balanceAt(accountId, at));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -126,14 +226,53 @@ public class TransactionController {
         }
     }
     
+    @GetMapping("/export/{accountId}")
+    public ResponseEntity<?> exportStatement(@PathVariable UUID accountId,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(defaultValue = "csv") String format,
+                                             Authentication authentication) {
+        try {
+            if (!StatementExportService.FORMATS.contains(format)) {
+                throw new RuntimeException("format must be csv or ndjson");
+            }
+            LocalDate start = from != null ? from : LocalDate.of(1970, 1, 1);
+            LocalDate end = to != null ? to : LocalDate.now();
+            if (end.isBefore(start)) {
+                throw new RuntimeException("to must not be before from");
+            }
+            
+            // Written on an async thread after the handler returns; nothing is buffered here
+            StreamingResponseBody body = out -> statementExportService.export(accountId, start, end, format, out);
+            
+            return ResponseEntity.ok()
+                    .contentType("csv".equals(format) ? new MediaType("text", "csv") : MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"statement-" + accountId + "." + format + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/high-value")
-    public ResponseEntity<?> getHighValueTransactions(@RequestParam(defaultValue = "100000") BigDecimal threshold) {
+    public ResponseEntity<?> getHighValueTransactions(@RequestParam(defaultValue = "100000") BigDecimal threshold,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size) {
         try {
-            List<com.banking.model.Transaction> transactions = transactionService.getHighValueTransactions(threshold);
+            Slice<HighValueTransaction> transactions =
+                    transactionService.getHighValueTransactions(threshold, from, to, page, size);
             
             Map<String, Object> response = new HashMap<>();
             response.put("threshold", threshold);
-            response.put("transactions", transactions);
+            response.put("page", page);
+            response.put("size", size);
+            response.put("hasNext", transactions.hasNext());
+            response.put("transactions", transactions.getContent());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -0,0 +1,25 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Columns returned by the account listing, selected with the branch in a single join
+public interface AccountSummary {
+    
+    UUID getAccountId();
+    
+    String getAccountNumber();
+    
+    BigDecimal getBalance();
+    
+    String getAccountType();
+    
+    Boolean getIsActive();
+    
+    String getBranchCode();
+    
+    String getBranchName();
+    
+    LocalDateTime getCreatedAt();
+}
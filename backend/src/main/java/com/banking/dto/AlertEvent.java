@@ -0,0 +1,94 @@
+package com.banking.dto;
+
+import com.banking.model.Alert;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// An alert as pushed on /admin/alerts/stream; the event name is "created" or "resolved"
+public class AlertEvent {
+
+    private String id;
+
+    private String event;
+
+    private UUID alertId;
+
+    private UUID accountId;
+
+    private UUID txnId;
+
+    private String alertType;
+
+    private String message;
+
+    private Boolean isResolved;
+
+    private UUID resolvedBy;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime resolvedAt;
+
+    // Constructors
+    public AlertEvent() {}
+
+    // A row changed by a bulk UPDATE; the caller fills in the event and the resolution
+    public AlertEvent(UUID alertId, UUID accountId, UUID txnId, String alertType, String message,
+                      LocalDateTime createdAt) {
+        this.alertId = alertId;
+        this.accountId = accountId;
+        this.txnId = txnId;
+        this.alertType = alertType;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    // Reads only the ids of the alert's associations, so lazy proxies stay uninitialized
+    public AlertEvent(String event, Alert alert) {
+        this.event = event;
+        this.alertId = alert.getAlertId();
+        this.accountId = alert.getAccount().getAccountId();
+        this.txnId = alert.getTransaction() != null ? alert.getTransaction().getTxnId() : null;
+        this.alertType = alert.getAlertType();
+        this.message = alert.getMessage();
+        this.isResolved = alert.getIsResolved();
+        this.resolvedBy = alert.getResolvedBy() != null ? alert.getResolvedBy().getUserId() : null;
+        this.createdAt = alert.getCreatedAt();
+        this.resolvedAt = alert.getResolvedAt();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getEvent() { return event; }
+    public void setEvent(String event) { this.event = event; }
+
+    public UUID getAlertId() { return alertId; }
+    public void setAlertId(UUID alertId) { this.alertId = alertId; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public UUID getTxnId() { return txnId; }
+    public void setTxnId(UUID txnId) { this.txnId = txnId; }
+
+    public String getAlertType() { return alertType; }
+    public void setAlertType(String alertType) { this.alertType = alertType; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Boolean getIsResolved() { return isResolved; }
+    public void setIsResolved(Boolean isResolved) { this.isResolved = isResolved; }
+
+    public UUID getResolvedBy() { return resolvedBy; }
+    public void setResolvedBy(UUID resolvedBy) { this.resolvedBy = resolvedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+}
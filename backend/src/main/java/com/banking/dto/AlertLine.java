@@ -0,0 +1,70 @@
+package com.banking.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One row of the admin alert queue: the alert's columns plus the account number, no entities
+public class AlertLine {
+
+    private UUID alertId;
+
+    private UUID accountId;
+
+    private String accountNumber;
+
+    private UUID txnId;
+
+    private String alertType;
+
+    private String message;
+
+    private Boolean isResolved;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime resolvedAt;
+
+    // Constructors
+    public AlertLine() {}
+
+    public AlertLine(UUID alertId, UUID accountId, String accountNumber, UUID txnId, String alertType,
+                     String message, Boolean isResolved, LocalDateTime createdAt, LocalDateTime resolvedAt) {
+        this.alertId = alertId;
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.txnId = txnId;
+        this.alertType = alertType;
+        this.message = message;
+        this.isResolved = isResolved;
+        this.createdAt = createdAt;
+        this.resolvedAt = resolvedAt;
+    }
+
+    // Getters and Setters
+    public UUID getAlertId() { return alertId; }
+    public void setAlertId(UUID alertId) { this.alertId = alertId; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+
+    public UUID getTxnId() { return txnId; }
+    public void setTxnId(UUID txnId) { this.txnId = txnId; }
+
+    public String getAlertType() { return alertType; }
+    public void setAlertType(String alertType) { this.alertType = alertType; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Boolean getIsResolved() { return isResolved; }
+    public void setIsResolved(Boolean isResolved) { this.isResolved = isResolved; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+}
@@ -0,0 +1,50 @@
+package com.banking.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Alerts to resolve in bulk: either alertIds, or a filter of at least one of the other fields
+public class AlertResolveRequest {
+    
+    @Size(max = 10000, message = "At most 10000 alert ids may be resolved at once")
+    private List<UUID> alertIds;
+    
+    private String alertType;
+    
+    private UUID accountId;
+    
+    private LocalDateTime from;
+    
+    // Exclusive; alerts raised after the request arrives are never matched
+    private LocalDateTime to;
+    
+    // Constructors
+    public AlertResolveRequest() {}
+    
+    public AlertResolveRequest(List<UUID> alertIds) {
+        this.alertIds = alertIds;
+    }
+    
+    public boolean hasFilter() {
+        return alertType != null || accountId != null || from != null || to != null;
+    }
+    
+    // Getters and Setters
+    public List<UUID> getAlertIds() { return alertIds; }
+    public void setAlertIds(List<UUID> alertIds) { this.alertIds = alertIds; }
+    
+    public String getAlertType() { return alertType; }
+    public void setAlertType(String alertType) { this.alertType = alertType; }
+    
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+    
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
@@ -0,0 +1,31 @@
+package com.banking.dto;
+
+public class AlertResolveResult {
+    
+    // Alerts this request resolved
+    private int resolved;
+    
+    // Requested ids that were unknown or already resolved; always 0 for a filter
+    private int skipped;
+    
+    // UPDATE statements run, each in a transaction of its own
+    private int chunks;
+    
+    // Constructors
+    public AlertResolveResult() {}
+    
+    public void addChunk(int resolvedInChunk) {
+        resolved += resolvedInChunk;
+        chunks++;
+    }
+    
+    // Getters and Setters
+    public int getResolved() { return resolved; }
+    public void setResolved(int resolved) { this.resolved = resolved; }
+    
+    public int getSkipped() { return skipped; }
+    public void setSkipped(int skipped) { this.skipped = skipped; }
+    
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+}
@@ -0,0 +1,25 @@
+package com.banking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchTransferRequest {
+    
+    // Items are validated one by one in the service so a bad item fails alone
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 transfers")
+    private List<TransactionRequest> transfers;
+    
+    // Constructors
+    public BatchTransferRequest() {}
+    
+    public BatchTransferRequest(List<TransactionRequest> transfers) {
+        this.transfers = transfers;
+    }
+    
+    // Getters and Setters
+    public List<TransactionRequest> getTransfers() { return transfers; }
+    public void setTransfers(List<TransactionRequest> transfers) { this.transfers = transfers; }
+}
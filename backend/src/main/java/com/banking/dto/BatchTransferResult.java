@@ -0,0 +1,54 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class BatchTransferResult {
+    
+    private int index;
+    
+    private UUID fromAccount;
+    
+    private UUID toAccount;
+    
+    private BigDecimal amount;
+    
+    private UUID transactionId;
+    
+    private String error;
+    
+    // Constructors
+    public BatchTransferResult() {}
+    
+    // request is null for a null item, which only has its index and error
+    public BatchTransferResult(int index, TransactionRequest request, String error) {
+        this.index = index;
+        if (request != null) {
+            this.fromAccount = request.getAccountId();
+            this.toAccount = request.getToAccountId();
+            this.amount = request.getAmount();
+        }
+        this.error = error;
+    }
+    
+    public boolean isSuccess() { return error == null; }
+    
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    
+    public UUID getFromAccount() { return fromAccount; }
+    public void setFromAccount(UUID fromAccount) { this.fromAccount = fromAccount; }
+    
+    public UUID getToAccount() { return toAccount; }
+    public void setToAccount(UUID toAccount) { this.toAccount = toAccount; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
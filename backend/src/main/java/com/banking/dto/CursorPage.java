@@ -0,0 +1,26 @@
+package com.banking.dto;
+
+import java.util.List;
+
+public class CursorPage<T> {
+    
+    private List<T> items;
+    
+    // Opaque cursor for the following page; null on the last page
+    private String next;
+    
+    // Constructors
+    public CursorPage() {}
+    
+    public CursorPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    
+    public String getNext() { return next; }
+    public void setNext(String next) { this.next = next; }
+}
@@ -0,0 +1,67 @@
+package com.banking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseImportReport {
+    
+    private long rowsRead;
+    
+    private long imported;
+    
+    private long rejected;
+    
+    // The first banking.expense-import.max-errors rejections; rejected has the full count
+    private List<RowError> errors = new ArrayList<>();
+    
+    private boolean errorsTruncated;
+    
+    // Constructors
+    public ExpenseImportReport() {}
+    
+    public void reject(long line, String message, int maxErrors) {
+        rejected++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    // Getters and Setters
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+    
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+    
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+    
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+    
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    
+    public static class RowError {
+        
+        // 1-based line number in the upload
+        private long line;
+        
+        private String message;
+        
+        public RowError() {}
+        
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+        
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,16 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One GROUP BY row over expenses: the bucket is the day, or the first day of the month
+public interface ExpenseTotal {
+    
+    LocalDate getBucket();
+    
+    String getCategory();
+    
+    BigDecimal getTotal();
+    
+    Long getCount();
+}
@@ -0,0 +1,45 @@
+package com.banking.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One rule firing on one posting; becomes an Alert with the rule name as its type
+public class FraudFinding {
+
+    private String rule;
+
+    private UUID accountId;
+
+    private UUID txnId;
+
+    private LocalDateTime postedAt;
+
+    private String message;
+
+    // Constructors
+    public FraudFinding() {}
+
+    public FraudFinding(String rule, PostingEvent posting, String message) {
+        this.rule = rule;
+        this.accountId = posting.getAccountId();
+        this.txnId = posting.getTxnId();
+        this.postedAt = posting.getCreatedAt();
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public String getRule() { return rule; }
+    public void setRule(String rule) { this.rule = rule; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public UUID getTxnId() { return txnId; }
+    public void setTxnId(UUID txnId) { this.txnId = txnId; }
+
+    public LocalDateTime getPostedAt() { return postedAt; }
+    public void setPostedAt(LocalDateTime postedAt) { this.postedAt = postedAt; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
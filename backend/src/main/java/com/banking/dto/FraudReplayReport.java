@@ -0,0 +1,65 @@
+package com.banking.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class FraudReplayReport {
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private long postings;
+
+    // Per rule: how many postings it fired on, and its mean evaluation time
+    private Map<String, Long> findingsByRule = new TreeMap<>();
+
+    private Map<String, Double> meanMicrosByRule = new TreeMap<>();
+
+    // The first findings in posting order; the counts above cover all of them
+    private List<FraudFinding> findings = new ArrayList<>();
+
+    private boolean findingsTruncated;
+
+    // Constructors
+    public FraudReplayReport() {}
+
+    public FraudReplayReport(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public void add(FraudFinding finding, int maxFindings) {
+        findingsByRule.merge(finding.getRule(), 1L, Long::sum);
+        if (findings.size() < maxFindings) {
+            findings.add(finding);
+        } else {
+            findingsTruncated = true;
+        }
+    }
+
+    // Getters and Setters
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+
+    public long getPostings() { return postings; }
+    public void setPostings(long postings) { this.postings = postings; }
+
+    public Map<String, Long> getFindingsByRule() { return findingsByRule; }
+    public void setFindingsByRule(Map<String, Long> findingsByRule) { this.findingsByRule = findingsByRule; }
+
+    public Map<String, Double> getMeanMicrosByRule() { return meanMicrosByRule; }
+    public void setMeanMicrosByRule(Map<String, Double> meanMicrosByRule) { this.meanMicrosByRule = meanMicrosByRule; }
+
+    public List<FraudFinding> getFindings() { return findings; }
+    public void setFindings(List<FraudFinding> findings) { this.findings = findings; }
+
+    public boolean isFindingsTruncated() { return findingsTruncated; }
+    public void setFindingsTruncated(boolean findingsTruncated) { this.findingsTruncated = findingsTruncated; }
+}
@@ -0,0 +1,9 @@
+package com.banking.dto;
+
+import java.util.UUID;
+
+// A TransactionLine plus the account it was posted to, for the high-value reports
+public interface HighValueTransaction extends TransactionLine {
+    
+    UUID getAccountId();
+}
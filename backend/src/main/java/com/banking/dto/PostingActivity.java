@@ -0,0 +1,16 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// When and how much a completed posting moved, for rebuilding the velocity counters
+public interface PostingActivity {
+    
+    UUID getAccountId();
+    
+    LocalDateTime getCreatedAt();
+    
+    // Absolute value: debits and credits both count towards velocity
+    BigDecimal getAmount();
+}
@@ -0,0 +1,19 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A completed posting and the balance it left, for the daily balance snapshots
+public interface PostingBalance {
+    
+    UUID getAccountId();
+    
+    UUID getTxnId();
+    
+    LocalDateTime getCreatedAt();
+    
+    BigDecimal getAmount();
+    
+    BigDecimal getBalanceAfter();
+}
@@ -0,0 +1,56 @@
+package com.banking.dto;
+
+import com.banking.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A committed posting as the fraud rules see it. The counterparty is the other account of a
+// transfer and null otherwise; amount is signed, negative for money leaving the account.
+public class PostingEvent {
+
+    private UUID txnId;
+
+    private UUID accountId;
+
+    private UUID counterpartyId;
+
+    private TransactionType type;
+
+    private BigDecimal amount;
+
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public PostingEvent() {}
+
+    public PostingEvent(UUID txnId, UUID accountId, UUID counterpartyId, TransactionType type,
+                        BigDecimal amount, LocalDateTime createdAt) {
+        this.txnId = txnId;
+        this.accountId = accountId;
+        this.counterpartyId = counterpartyId;
+        this.type = type;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public UUID getTxnId() { return txnId; }
+    public void setTxnId(UUID txnId) { this.txnId = txnId; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public UUID getCounterpartyId() { return counterpartyId; }
+    public void setCounterpartyId(UUID counterpartyId) { this.counterpartyId = counterpartyId; }
+
+    public TransactionType getType() { return type; }
+    public void setType(TransactionType type) { this.type = type; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,25 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+
+public class RecentActivity {
+    
+    private long count;
+    
+    private BigDecimal amount;
+    
+    // Constructors
+    public RecentActivity() {}
+    
+    public RecentActivity(long count, BigDecimal amount) {
+        this.count = count;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,26 @@
+package com.banking.dto;
+
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Column-only view of a Transaction row: no entity, no associations, nothing in the persistence context
+public interface TransactionLine {
+    
+    UUID getTxnId();
+    
+    LocalDateTime getCreatedAt();
+    
+    TransactionType getType();
+    
+    BigDecimal getAmount();
+    
+    BigDecimal getBalanceAfter();
+    
+    String getDescription();
+    
+    TransactionStatus getStatus();
+}
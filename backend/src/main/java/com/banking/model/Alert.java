@@ -14,7 +14,7 @@ import java.util.UUID;
 public class Alert {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     @Column(name = "alert_id")
     private UUID alertId;
     
@@ -0,0 +1,71 @@
+package com.banking.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Closing balance of an account at the end of a day it had postings on. Days without postings have
+// no row; the balance carries over from the previous snapshot.
+@Entity
+@Table(name = "balance_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_balance_snapshots_account_date", columnNames = {"account_id", "snapshot_date"})
+}, indexes = {
+    // Latest snapshot date and the delete before a day is rewritten
+    @Index(name = "idx_balance_snapshots_date", columnList = "snapshot_date")
+})
+public class BalanceSnapshot {
+    
+    @Id
+    @UuidV7
+    @Column(name = "snapshot_id")
+    private UUID snapshotId;
+    
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+    
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+    
+    @Column(name = "closing_balance", precision = 15, scale = 2, nullable = false)
+    private BigDecimal closingBalance;
+    
+    // Signed sum of the day's postings
+    @Column(name = "net_change", precision = 15, scale = 2, nullable = false)
+    private BigDecimal netChange;
+    
+    @Column(name = "posting_count", nullable = false)
+    private Integer postingCount;
+    
+    // Constructors
+    public BalanceSnapshot() {}
+    
+    public BalanceSnapshot(UUID accountId, LocalDate snapshotDate, BigDecimal closingBalance,
+                           BigDecimal netChange, Integer postingCount) {
+        this.accountId = accountId;
+        this.snapshotDate = snapshotDate;
+        this.closingBalance = closingBalance;
+        this.netChange = netChange;
+        this.postingCount = postingCount;
+    }
+    
+    // Getters and Setters
+    public UUID getSnapshotId() { return snapshotId; }
+    public void setSnapshotId(UUID snapshotId) { this.snapshotId = snapshotId; }
+    
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+    
+    public LocalDate getSnapshotDate() { return snapshotDate; }
+    public void setSnapshotDate(LocalDate snapshotDate) { this.snapshotDate = snapshotDate; }
+    
+    public BigDecimal getClosingBalance() { return closingBalance; }
+    public void setClosingBalance(BigDecimal closingBalance) { this.closingBalance = closingBalance; }
+    
+    public BigDecimal getNetChange() { return netChange; }
+    public void setNetChange(BigDecimal netChange) { this.netChange = netChange; }
+    
+    public Integer getPostingCount() { return postingCount; }
+    public void setPostingCount(Integer postingCount) { this.postingCount = postingCount; }
+}
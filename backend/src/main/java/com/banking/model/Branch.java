@@ -1,16 +1,18 @@
 package com.banking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "branches")
-public class Branch {
+public class Branch implements Persistable<String> {
     
     @Id
     @Column(name = "branch_code", length = 10)
@@ -38,6 +40,12 @@ public class Branch {
     @OneToMany(mappedBy = "branch", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Account> accounts;
     
+    // Branch codes are assigned, so the id alone can't tell save() a new branch from a stored one;
+    // without this it merges a copy and leaves the caller's instance transient
+    @Transient
+    @JsonIgnore
+    private boolean isNew = true;
+    
     // Constructors
     public Branch() {}
     
@@ -68,4 +76,16 @@ public class Branch {
     
     public List<Account> getAccounts() { return accounts; }
     public void setAccounts(List<Account> accounts) { this.accounts = accounts; }
+    
+    @Override
+    @JsonIgnore
+    public String getId() { return branchCode; }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() { return isNew; }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
 }
@@ -0,0 +1,73 @@
+package com.banking.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+// Running total of a user's expenses per day, kept in step by ExpenseService.addExpense
+@Entity
+@Table(name = "expense_daily_rollups")
+@IdClass(ExpenseDailyRollup.Key.class)
+public class ExpenseDailyRollup {
+    
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+    
+    @Id
+    @Column(name = "expense_date")
+    private LocalDate expenseDate;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal total;
+    
+    @Column(name = "expense_count", nullable = false)
+    private Integer expenseCount;
+    
+    // Constructors
+    public ExpenseDailyRollup() {}
+    
+    public ExpenseDailyRollup(UUID userId, LocalDate expenseDate, BigDecimal total, Integer expenseCount) {
+        this.userId = userId;
+        this.expenseDate = expenseDate;
+        this.total = total;
+        this.expenseCount = expenseCount;
+    }
+    
+    // Getters and Setters
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    
+    public LocalDate getExpenseDate() { return expenseDate; }
+    public void setExpenseDate(LocalDate expenseDate) { this.expenseDate = expenseDate; }
+    
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    
+    public Integer getExpenseCount() { return expenseCount; }
+    public void setExpenseCount(Integer expenseCount) { this.expenseCount = expenseCount; }
+    
+    public static class Key implements Serializable {
+        private UUID userId;
+        private LocalDate expenseDate;
+        
+        public Key() {}
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(userId, key.userId) && Objects.equals(expenseDate, key.expenseDate);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, expenseDate);
+        }
+    }
+}
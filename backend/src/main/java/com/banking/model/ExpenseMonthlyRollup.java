@@ -0,0 +1,93 @@
+package com.banking.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+// Running total of a user's expenses per month and category, kept in step by ExpenseService.addExpense
+@Entity
+@Table(name = "expense_monthly_rollups")
+@IdClass(ExpenseMonthlyRollup.Key.class)
+public class ExpenseMonthlyRollup {
+    
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+    
+    // First day of the month
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+    
+    @Id
+    @Column(name = "category", length = 50)
+    private String category;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal total;
+    
+    @Column(name = "expense_count", nullable = false)
+    private Integer expenseCount;
+    
+    // Constructors
+    public ExpenseMonthlyRollup() {}
+    
+    public ExpenseMonthlyRollup(UUID userId, LocalDate monthStart, String category, BigDecimal total, Integer expenseCount) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+        this.category = category;
+        this.total = total;
+        this.expenseCount = expenseCount;
+    }
+    
+    // Getters and Setters
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    
+    public LocalDate getMonthStart() { return monthStart; }
+    public void setMonthStart(LocalDate monthStart) { this.monthStart = monthStart; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    
+    public Integer getExpenseCount() { return expenseCount; }
+    public void setExpenseCount(Integer expenseCount) { this.expenseCount = expenseCount; }
+    
+    public static class Key implements Serializable {
+        private UUID userId;
+        private LocalDate monthStart;
+        private String category;
+        
+        public Key() {}
+        
+        public Key(UUID userId, LocalDate monthStart, String category) {
+            this.userId = userId;
+            this.monthStart = monthStart;
+            this.category = category;
+        }
+        
+        public LocalDate getMonthStart() { return monthStart; }
+        public String getCategory() { return category; }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(userId, key.userId) && Objects.equals(monthStart, key.monthStart)
+                    && Objects.equals(category, key.category);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, monthStart, category);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key", columnNames = {"user_id", "idempotency_key"}))
+public class IdempotencyKey {
+    
+    @Id
+    @UuidV7
+    @Column(name = "id")
+    private UUID id;
+    
+    // Keys are scoped to the user who sent them; the unique constraint on (user_id, idempotency_key)
+    // makes a concurrent duplicate fail its insert instead of double-posting
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @NotBlank(message = "Idempotency key is required")
+    @Size(max = 100)
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+    
+    @Size(max = 20)
+    @Column(name = "operation", nullable = false, length = 20)
+    private String operation;
+    
+    @Column(name = "txn_id", nullable = false)
+    private UUID transactionId;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    // SHA-256 of the operation, accounts and amount; a replay must carry the same request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public IdempotencyKey() {}
+    
+    public IdempotencyKey(UUID userId, String idempotencyKey, String operation, UUID transactionId,
+                          BigDecimal amount, String requestHash) {
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+        this.operation = operation;
+        this.transactionId = transactionId;
+        this.amount = amount;
+        this.requestHash = requestHash;
+    }
+    
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+    
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
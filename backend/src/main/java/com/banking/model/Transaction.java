@@ -1,7 +1,6 @@
 package com.banking.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -10,12 +9,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+// High-value scans use idx_transactions_high_value on abs(amount), in db/indexes-postgresql.sql
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_account_created", columnList = "account_id, created_at DESC, txn_id DESC")
+})
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     @Column(name = "txn_id")
     private UUID txnId;
     
@@ -32,8 +34,8 @@ public class Transaction {
     @Column(columnDefinition = "transaction_type", nullable = false)
     private TransactionType type;
     
+    // Signed: debits (withdrawals, outgoing transfers) are stored as negative amounts
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be positive")
     @Column(precision = 15, scale = 2, nullable = false)
     private BigDecimal amount;
     
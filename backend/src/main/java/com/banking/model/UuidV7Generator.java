@@ -0,0 +1,54 @@
+package com.banking.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+// RFC 9562 UUIDv7: 48-bit Unix millisecond timestamp, version 7, a 12-bit counter in rand_a
+// (method 1, "fixed-length dedicated counter") and 62 random bits. The counter keeps ids
+// strictly increasing within one JVM even when many are generated in the same millisecond.
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MAX = 0xFFF;
+
+    private static long lastMillis = -1;
+    private static int counter;
+
+    public static synchronized UUID nextUuid() {
+        long millis = System.currentTimeMillis();
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            // Start low in the counter range so a burst has room to increment
+            counter = RANDOM.nextInt(COUNTER_MAX / 2);
+        } else if (counter < COUNTER_MAX) {
+            // Same millisecond, or the clock stepped back: keep counting on the last timestamp
+            counter++;
+        } else {
+            // Counter exhausted: borrow the next millisecond rather than lose ordering
+            lastMillis++;
+            counter = 0;
+        }
+
+        long msb = (lastMillis << 16) | (0x7L << 12) | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return nextUuid();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+}
@@ -1,12 +1,20 @@
 package com.banking.repository;
 
+import com.banking.dto.AccountSummary;
 import com.banking.model.Account;
 import com.banking.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,12 +35,62 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     @Query("SELECT a FROM Account a WHERE a.user.userId = :userId AND a.isActive = true")
     List<Account> findActiveAccountsByUserId(@Param("userId") UUID userId);
     
+    @Query("SELECT a.accountId AS accountId, a.accountNumber AS accountNumber, a.balance AS balance, " +
+           "a.accountType AS accountType, a.isActive AS isActive, b.branchCode AS branchCode, " +
+           "b.branchName AS branchName, a.createdAt AS createdAt " +
+           "FROM Account a JOIN a.branch b WHERE a.user.userId = :userId AND a.isActive = true " +
+           "ORDER BY a.createdAt, a.accountId")
+    List<AccountSummary> findSummariesByUserId(@Param("userId") UUID userId);
+    
     @Query("SELECT a FROM Account a JOIN a.branch b WHERE b.region = :region AND a.isActive = true")
     List<Account> findByRegion(@Param("region") String region);
     
-    @Query(value = "SELECT * FROM accounts WHERE user_id = :userId AND is_active = true LIMIT 1", 
+    // The oldest active account, matching the first row of findSummariesByUserId
+    @Query(value = "SELECT * FROM accounts WHERE user_id = :userId AND is_active = true " +
+           "ORDER BY created_at, account_id LIMIT 1", 
            nativeQuery = true)
     Optional<Account> findPrimaryAccountByUserId(@Param("userId") UUID userId);
     
     Boolean existsByAccountNumber(String accountNumber);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountId = :accountId")
+    Optional<Account> findByIdForUpdate(@Param("accountId") UUID accountId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountId IN :accountIds ORDER BY a.accountId")
+    List<Account> findAllByIdForUpdate(@Param("accountIds") Collection<UUID> accountIds);
+    
+    // Single-statement balance changes: the WHERE clause is the business check, and an
+    // empty result / zero row count means the account is missing, inactive or short of funds.
+    // The RETURNING variants are deliberately not @Modifying: that would run them through
+    // executeUpdate, which throws the returned balance away. They run as native selects instead,
+    // so Hibernate flushes pending changes before them (auto flush) but does not clear the
+    // persistence context afterwards: a managed Account for the same id keeps its old balance, so
+    // callers take the new balance from the result. MANDATORY keeps them in the posting's
+    // transaction rather than committing the balance change on their own.
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE accounts SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE account_id = :accountId AND is_active AND balance >= :amount RETURNING balance",
+           nativeQuery = true)
+    Optional<BigDecimal> debitReturningBalance(@Param("accountId") UUID accountId, @Param("amount") BigDecimal amount);
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE accounts SET balance = balance + :amount, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE account_id = :accountId AND is_active RETURNING balance",
+           nativeQuery = true)
+    Optional<BigDecimal> creditReturningBalance(@Param("accountId") UUID accountId, @Param("amount") BigDecimal amount);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.accountId = :accountId AND a.isActive = true AND a.balance >= :amount")
+    int debitIfSufficient(@Param("accountId") UUID accountId, @Param("amount") BigDecimal amount);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.accountId = :accountId AND a.isActive = true")
+    int creditIfActive(@Param("accountId") UUID accountId, @Param("amount") BigDecimal amount);
+    
+    @Query("SELECT a.balance FROM Account a WHERE a.accountId = :accountId")
+    Optional<BigDecimal> findBalanceById(@Param("accountId") UUID accountId);
 }
@@ -1,8 +1,11 @@
 package com.banking.repository;
 
+import com.banking.dto.AlertEvent;
 import com.banking.model.Alert;
 import com.banking.model.Account;
+import com.banking.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,9 +23,6 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
     
     List<Alert> findByAlertType(String alertType);
     
-    @Query("SELECT a FROM Alert a WHERE a.isResolved = false ORDER BY a.createdAt DESC")
-    List<Alert> findUnresolvedAlerts();
-    
     @Query("SELECT a FROM Alert a WHERE a.account.accountId = :accountId ORDER BY a.createdAt DESC")
     List<Alert> findAlertsByAccountId(@Param("accountId") UUID accountId);
     
@@ -30,6 +30,26 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
     List<Alert> findAlertsByDateRange(@Param("startDate") LocalDateTime startDate, 
                                      @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT COUNT(a) FROM Alert a WHERE a.account.accountId = :accountId AND a.isResolved = false")
-    Long countUnresolvedAlertsByAccount(@Param("accountId") UUID accountId);
+    // Seed AlertCounters; both are scans of the unresolved partial indexes on PostgreSQL
+    @Query("SELECT a.alertType, COUNT(a) FROM Alert a WHERE a.isResolved = false GROUP BY a.alertType")
+    List<Object[]> countUnresolvedByType();
+    
+    @Query("SELECT a.account.accountId, COUNT(a) FROM Alert a WHERE a.isResolved = false GROUP BY a.account.accountId")
+    List<Object[]> countUnresolvedByAccount();
+    
+    // Bulk resolution; rows already resolved keep their original resolver and time
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Alert a SET a.isResolved = true, a.resolvedBy = :resolvedBy, a.resolvedAt = :resolvedAt " +
+           "WHERE a.alertId IN :alertIds AND a.isResolved = false")
+    int resolveAll(@Param("alertIds") List<UUID> alertIds,
+                   @Param("resolvedBy") User resolvedBy,
+                   @Param("resolvedAt") LocalDateTime resolvedAt);
+    
+    // What a resolveAll call changed, told apart from alerts resolved earlier by its resolver and time
+    @Query("SELECT new com.banking.dto.AlertEvent(a.alertId, a.account.accountId, a.transaction.txnId, " +
+           "a.alertType, a.message, a.createdAt) FROM Alert a " +
+           "WHERE a.alertId IN :alertIds AND a.resolvedBy = :resolvedBy AND a.resolvedAt = :resolvedAt")
+    List<AlertEvent> findResolvedBy(@Param("alertIds") List<UUID> alertIds,
+                                    @Param("resolvedBy") User resolvedBy,
+                                    @Param("resolvedAt") LocalDateTime resolvedAt);
 }
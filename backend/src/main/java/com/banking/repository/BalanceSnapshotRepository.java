@@ -0,0 +1,28 @@
+package com.banking.repository;
+
+import com.banking.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, UUID> {
+    
+    // Served by the (account_id, snapshot_date) unique index
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(UUID accountId,
+                                                                                                 LocalDate date);
+    
+    // Both served by idx_balance_snapshots_date
+    @Query("SELECT MAX(s.snapshotDate) FROM BalanceSnapshot s")
+    LocalDate findLatestSnapshotDate();
+    
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.snapshotDate = :date")
+    int deleteBySnapshotDate(@Param("date") LocalDate date);
+}
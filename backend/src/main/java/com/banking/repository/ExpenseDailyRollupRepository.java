@@ -0,0 +1,22 @@
+package com.banking.repository;
+
+import com.banking.model.ExpenseDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExpenseDailyRollupRepository extends JpaRepository<ExpenseDailyRollup, ExpenseDailyRollup.Key> {
+    
+    List<ExpenseDailyRollup> findByUserIdAndExpenseDateBetween(UUID userId, LocalDate start, LocalDate end);
+    
+    @Modifying
+    @Query("DELETE FROM ExpenseDailyRollup r WHERE r.userId = :userId")
+    int deleteByUser(@Param("userId") UUID userId);
+}
@@ -0,0 +1,25 @@
+package com.banking.repository;
+
+import com.banking.model.ExpenseMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExpenseMonthlyRollupRepository extends JpaRepository<ExpenseMonthlyRollup, ExpenseMonthlyRollup.Key> {
+    
+    // [monthStart, total] across categories
+    @Query("SELECT r.monthStart, SUM(r.total) FROM ExpenseMonthlyRollup r WHERE r.userId = :userId " +
+           "AND r.monthStart >= :from AND r.monthStart < :to GROUP BY r.monthStart")
+    List<Object[]> sumByMonth(@Param("userId") UUID userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Modifying
+    @Query("DELETE FROM ExpenseMonthlyRollup r WHERE r.userId = :userId")
+    int deleteByUser(@Param("userId") UUID userId);
+}
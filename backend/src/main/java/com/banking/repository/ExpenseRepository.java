@@ -1,5 +1,6 @@
 package com.banking.repository;
 
+import com.banking.dto.ExpenseTotal;
 import com.banking.model.Expense;
 import com.banking.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -20,4 +21,22 @@ public interface ExpenseRepository extends JpaRepository<Expense, UUID> {
     List<Expense> findForUserInRange(@Param("user") User user,
                                      @Param("start") LocalDate start,
                                      @Param("end") LocalDate end);
+
+    @Query("SELECT DISTINCT e.user.userId FROM Expense e")
+    List<UUID> findUserIdsWithExpenses();
+
+    // Aggregated by the database over the (user_id, expense_date) index; no entities are loaded
+    @Query("SELECT trunc(e.date, month) AS bucket, e.category AS category, SUM(e.amount) AS total, COUNT(e) AS count " +
+           "FROM Expense e WHERE e.user.userId = :userId AND e.date BETWEEN :start AND :end " +
+           "GROUP BY trunc(e.date, month), e.category")
+    List<ExpenseTotal> sumByMonthAndCategory(@Param("userId") UUID userId,
+                                             @Param("start") LocalDate start,
+                                             @Param("end") LocalDate end);
+
+    @Query("SELECT e.date AS bucket, e.category AS category, SUM(e.amount) AS total, COUNT(e) AS count " +
+           "FROM Expense e WHERE e.user.userId = :userId AND e.date BETWEEN :start AND :end " +
+           "GROUP BY e.date, e.category")
+    List<ExpenseTotal> sumByDayAndCategory(@Param("userId") UUID userId,
+                                           @Param("start") LocalDate start,
+                                           @Param("end") LocalDate end);
 }
@@ -1,11 +1,21 @@
 package com.banking.repository;
 
+import com.banking.dto.HighValueTransaction;
+import com.banking.dto.PostingActivity;
+import com.banking.dto.PostingBalance;
+import com.banking.dto.PostingEvent;
+import com.banking.dto.TransactionLine;
 import com.banking.model.Account;
 import com.banking.model.Transaction;
 import com.banking.model.TransactionStatus;
 import com.banking.model.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +23,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
@@ -24,8 +38,32 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     @Query("SELECT t FROM Transaction t WHERE t.account.accountId = :accountId AND t.status = 'COMPLETED' ORDER BY t.createdAt DESC")
     List<Transaction> findRecentTransactionsByAccountId(@Param("accountId") UUID accountId);
     
-    @Query(value = "SELECT * FROM get_mini_statement(:accountId)", nativeQuery = true)
-    List<Object[]> getMiniStatement(@Param("accountId") UUID accountId);
+    // Keyset pages over idx_transactions_account_created: every page is an index range scan
+    @Query("SELECT t.txnId AS txnId, t.createdAt AS createdAt, t.type AS type, t.amount AS amount, " +
+           "t.balanceAfter AS balanceAfter, t.description AS description, t.status AS status " +
+           "FROM Transaction t WHERE t.account.accountId = :accountId AND t.status = 'COMPLETED' " +
+           "ORDER BY t.createdAt DESC, t.txnId DESC")
+    List<TransactionLine> findHistoryFirstPage(@Param("accountId") UUID accountId, Pageable page);
+    
+    @Query("SELECT t.txnId AS txnId, t.createdAt AS createdAt, t.type AS type, t.amount AS amount, " +
+           "t.balanceAfter AS balanceAfter, t.description AS description, t.status AS status " +
+           "FROM Transaction t WHERE t.account.accountId = :accountId AND t.status = 'COMPLETED' " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.txnId < :txnId)) " +
+           "ORDER BY t.createdAt DESC, t.txnId DESC")
+    List<TransactionLine> findHistoryPageAfter(@Param("accountId") UUID accountId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("txnId") UUID txnId,
+                                           Pageable page);
+    
+    // Cursor-backed stream for statement export; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.txnId AS txnId, t.createdAt AS createdAt, t.type AS type, t.amount AS amount, " +
+           "t.balanceAfter AS balanceAfter, t.description AS description, t.status AS status " +
+           "FROM Transaction t WHERE t.account.accountId = :accountId " +
+           "AND t.createdAt >= :from AND t.createdAt < :to ORDER BY t.createdAt ASC, t.txnId ASC")
+    Stream<TransactionLine> streamStatement(@Param("accountId") UUID accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
     
     List<Transaction> findByType(TransactionType type);
     
@@ -36,9 +74,56 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
                                               @Param("startDate") LocalDateTime startDate, 
                                               @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT t FROM Transaction t WHERE ABS(t.amount) > :amount AND t.status = 'COMPLETED'")
-    List<Transaction> findHighValueTransactions(@Param("amount") BigDecimal amount);
+    // Largest first; on PostgreSQL the partial index idx_transactions_high_value serves the range, the
+    // order and every selected column, so a page is an index-only scan
+    @Query("SELECT t.txnId AS txnId, t.account.accountId AS accountId, t.createdAt AS createdAt, t.type AS type, " +
+           "t.amount AS amount, t.balanceAfter AS balanceAfter, t.description AS description, t.status AS status " +
+           "FROM Transaction t WHERE ABS(t.amount) > :threshold AND t.createdAt >= :from AND t.createdAt < :to " +
+           "AND t.status = 'COMPLETED' ORDER BY ABS(t.amount) DESC, t.txnId DESC")
+    Slice<HighValueTransaction> findHighValueTransactions(@Param("threshold") BigDecimal threshold,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to,
+                                                          Pageable page);
+    
+    // Velocity counter rebuild at startup; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.account.accountId AS accountId, t.createdAt AS createdAt, ABS(t.amount) AS amount " +
+           "FROM Transaction t WHERE t.createdAt >= :since AND t.status = 'COMPLETED'")
+    Stream<PostingActivity> streamActivitySince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT t.account.accountId AS accountId, t.createdAt AS createdAt, ABS(t.amount) AS amount " +
+           "FROM Transaction t WHERE t.account.accountId = :accountId AND t.createdAt >= :since " +
+           "AND t.status = 'COMPLETED' ORDER BY t.createdAt ASC")
+    List<PostingActivity> findActivitySince(@Param("accountId") UUID accountId, @Param("since") LocalDateTime since);
+    
+    // One day of postings for the balance snapshots; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.account.accountId AS accountId, t.txnId AS txnId, t.createdAt AS createdAt, " +
+           "t.amount AS amount, t.balanceAfter AS balanceAfter FROM Transaction t " +
+           "WHERE t.createdAt >= :from AND t.createdAt < :to AND t.status = 'COMPLETED'")
+    Stream<PostingBalance> streamPostingsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.accountId = :accountId " +
+           "AND t.createdAt >= :from AND t.createdAt <= :to AND t.status = 'COMPLETED'")
+    BigDecimal sumAmountsBetween(@Param("accountId") UUID accountId, @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+    
+    @Query("SELECT t.balanceAfter FROM Transaction t WHERE t.account.accountId = :accountId " +
+           "AND t.createdAt <= :at AND t.status = 'COMPLETED' ORDER BY t.createdAt DESC, t.txnId DESC")
+    List<BigDecimal> findBalancesAtOrBefore(@Param("accountId") UUID accountId, @Param("at") LocalDateTime at,
+                                            Pageable page);
     
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.accountId = :accountId AND t.createdAt > :since AND t.status = 'COMPLETED'")
     Long countRecentTransactionsByAccount(@Param("accountId") UUID accountId, @Param("since") LocalDateTime since);
+    
+    // Fraud rule replay, in posting order; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.banking.dto.PostingEvent(t.txnId, t.account.accountId, c.accountId, t.type, t.amount, t.createdAt) " +
+           "FROM Transaction t LEFT JOIN t.toAccount c " +
+           "WHERE t.createdAt >= :from AND t.createdAt < :to AND t.status = 'COMPLETED' ORDER BY t.createdAt, t.txnId")
+    Stream<PostingEvent> streamPostingEventsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT MIN(t.createdAt) FROM Transaction t WHERE t.account.accountId = :accountId " +
+           "AND t.toAccount.accountId = :payeeId AND t.amount < 0 AND t.status = 'COMPLETED'")
+    LocalDateTime findFirstPaymentTo(@Param("accountId") UUID accountId, @Param("payeeId") UUID payeeId);
 }
@@ -24,6 +24,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     List<User> findByIsActive(Boolean isActive);
     
+    @Query("SELECT u.userId FROM User u WHERE u.isActive = false")
+    List<UUID> findInactiveUserIds();
+    
     @Query("SELECT u FROM User u WHERE u.name LIKE %:name% AND u.isActive = true")
     List<User> findByNameContaining(@Param("name") String name);
     
@@ -0,0 +1,65 @@
+package com.banking.security;
+
+import com.banking.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Principal stored in the SecurityContext. Carries what controllers need about the caller so
+// they do not have to look the user up again.
+public class AuthenticatedUser implements UserDetails {
+    
+    private final UUID userId;
+    private final String username;
+    private final String email;
+    private final String role;
+    private final String password;
+    private final boolean active;
+    
+    public AuthenticatedUser(UUID userId, String username, String email, String role, String password, boolean active) {
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.password = password;
+        this.active = active;
+    }
+    
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getUserId(), user.getUsername(), user.getEmail(), user.getRole().name(),
+                user.getPassword(), !Boolean.FALSE.equals(user.getIsActive()));
+    }
+    
+    public UUID getUserId() { return userId; }
+    
+    public String getEmail() { return email; }
+    
+    public String getRole() { return role; }
+    
+    @Override
+    public String getUsername() { return username; }
+    
+    @Override
+    public String getPassword() { return password; }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+    
+    @Override
+    public boolean isAccountNonLocked() { return active; }
+    
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+    
+    @Override
+    public boolean isEnabled() { return active; }
+}
@@ -1,10 +1,12 @@
 package com.banking.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,38 +16,69 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final String STREAM_PATH = "/admin/alerts/stream";
+    
     @Autowired
     private UserDetailsService userDetailsService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
+    // Build the principal from the token's claims instead of loading the user on every request
+    @Value("${banking.auth.stateless:true}")
+    private boolean stateless;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
         String jwt = null;
-        
+        boolean streamToken = false;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
+        } else if (STREAM_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))
+                && request.getParameter("token") != null) {
+            // EventSource cannot set headers, so the alert stream takes a stream token in the URL
+            jwt = request.getParameter("token");
+            streamToken = true;
+        }
+        
+        Claims claims = null;
+        if (jwt != null) {
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Verifies the signature and expiry
+                claims = jwtUtil.extractAllClaims(jwt);
             } catch (Exception e) {
                 logger.error("JWT token extraction failed", e);
             }
         }
+        // Stream tokens are accepted from the stream URL only, and login tokens never from a URL,
+        // so a token that ends up in an access log cannot call the API
+        if (claims != null && streamToken != JwtUtil.STREAM_SCOPE.equals(claims.get("scope"))) {
+            claims = null;
+        }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails;
+            if (stateless && claims.get("userId") != null) {
+                userDetails = fromClaims(claims);
+            } else {
+                // Database mode, or a token issued before the userId claim existed
+                userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+            }
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -55,4 +88,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    // Null when the token's user has been deactivated
+    private AuthenticatedUser fromClaims(Claims claims) {
+        UUID id = UUID.fromString(claims.get("userId", String.class));
+        if (tokenRevocationList.isRevoked(id)) {
+            return null;
+        }
+        return new AuthenticatedUser(id, claims.getSubject(), claims.get("email", String.class),
+                claims.get("role", String.class), null, true);
+    }
 }
@@ -2,27 +2,60 @@ package com.banking.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
+    // Scope claim of the tokens that open /admin/alerts/stream
+    public static final String STREAM_SCOPE = "alert-stream";
+    
     @Value("${spring.security.jwt.secret}")
     private String secret;
     
     @Value("${spring.security.jwt.expiration}")
     private Long expiration;
     
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Long enough to open the stream; an open stream outlives its token
+    @Value("${banking.alerts.stream.token-ttl-ms:60000}")
+    private long streamTokenTtl;
+    
+    @Value("${banking.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+    
+    // Both are immutable and thread-safe, so they are built once
+    private Key signingKey;
+    private JwtParser parser;
+    
+    // Claims of recently verified tokens, keyed by the token's SHA-256 so the bearer strings
+    // themselves are not kept around. A hit skips the HMAC check and JSON parsing.
+    private Map<String, Claims> verifiedTokens;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        });
     }
     
     public String extractUsername(String token) {
@@ -38,16 +71,36 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Verifies the signature and expiry once per token; repeat calls are served from memory
+    // until the token expires
+    public Claims extractAllClaims(String token) {
+        String key = hash(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.remove(key);
+        }
+        
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -61,27 +114,48 @@ public class JwtUtil {
         return createToken(claims, username);
     }
     
+    // Carries everything stateless authentication needs to rebuild the principal
+    public String generateToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", user.getRole());
+        claims.put("userId", user.getUserId().toString());
+        claims.put("email", user.getEmail());
+        return createToken(claims, user.getUsername());
+    }
+    
+    // For EventSource, which cannot send an Authorization header: passed in the stream URL, so it
+    // is short-lived and JwtAuthenticationFilter accepts it for the alert stream only
+    public String generateStreamToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", user.getRole());
+        claims.put("userId", user.getUserId().toString());
+        claims.put("email", user.getEmail());
+        claims.put("scope", STREAM_SCOPE);
+        return createToken(claims, user.getUsername(), streamTokenTtl);
+    }
+    
     private String createToken(Map<String, Object> claims, String subject) {
+        return createToken(claims, subject, expiration);
+    }
+    
+    private String createToken(Map<String, Object> claims, String subject, long ttl) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + ttl))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
     
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+            extractAllClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,57 @@
+package com.banking.security;
+
+import com.banking.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ids of deactivated users, so stateless authentication can reject their still-unexpired tokens
+// without a per-request lookup. Reloaded from the users table on a fixed delay; deactivations on
+// this node are added as soon as they commit.
+@Component
+public class TokenRevocationList {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private volatile Set<UUID> revoked = Set.of();
+    
+    // Added locally since the last reload, with the System.nanoTime they were added at
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    
+    @Scheduled(fixedDelayString = "${banking.auth.revocation-refresh-ms:30000}")
+    public void refresh() {
+        long queriedAt = System.nanoTime();
+        Set<UUID> snapshot = ConcurrentHashMap.newKeySet();
+        snapshot.addAll(userRepository.findInactiveUserIds());
+        revoked = snapshot;
+        // Entries added before the query are settled by the snapshot, including users reactivated
+        // since; later ones may have committed after the query read the table, so they wait for the
+        // next reload
+        pending.values().removeIf(addedAt -> addedAt - queriedAt < 0);
+    }
+    
+    public boolean isRevoked(UUID userId) {
+        return revoked.contains(userId) || pending.containsKey(userId);
+    }
+    
+    public void revokeAfterCommit(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.put(userId, System.nanoTime());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.put(userId, System.nanoTime());
+            }
+        });
+    }
+}
@@ -3,16 +3,11 @@ package com.banking.security;
 import com.banking.model.User;
 import com.banking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     
@@ -28,17 +23,6 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("User account is deactivated: " + username);
         }
         
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-        
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(authorities)
-                .accountExpired(false)
-                .accountLocked(Boolean.FALSE.equals(user.getIsActive()))
-                .credentialsExpired(false)
-                .disabled(Boolean.FALSE.equals(user.getIsActive()))
-                .build();
+        return AuthenticatedUser.from(user);
     }
 }
@@ -0,0 +1,239 @@
+package com.banking.service;
+
+import com.banking.dto.AccountSummary;
+import com.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Primary-account summaries for GET /account/balance, keyed by accountId. Postings write the new
+// balance through after they commit; a miss or an expired entry reloads from the database.
+@Service
+public class AccountCache {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Loads run in a read-write transaction so they always go to the primary: a lagging replica
+    // could return a balance older than one already written through
+    private TransactionTemplate primaryRead;
+
+    @Value("${banking.account-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${banking.account-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // Guarded by this; both maps are access-ordered LRUs
+    private Map<UUID, CachedAccount> accounts;
+    private Map<UUID, UUID> primaryByUser;
+
+    // Write stamps are taken while the posting holds the account's row lock, so they follow
+    // commit order. Each stripe remembers the newest stamp that has committed for its accounts,
+    // and the sequence number of the last commit applied to it (both guarded by this).
+    private final AtomicLong stamps = new AtomicLong();
+    private final long[] committedStamps = new long[StripeSequences.STRIPES];
+    private final StripeSequences sequences = new StripeSequences();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedAccount> eldest) {
+                return size() > maxSize;
+            }
+        };
+        primaryByUser = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UUID> eldest) {
+                return size() > maxSize;
+            }
+        };
+        hits = meterRegistry.counter("banking.account.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("banking.account.cache.requests", "result", "miss");
+        meterRegistry.gauge("banking.account.cache.size", this, cache -> cache.size());
+    }
+
+    public Optional<AccountSummary> findPrimaryAccount(UUID userId) {
+        CachedAccount cached = lookup(userId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+
+        // If a posting for the account commits while we read, its stripe moves past the sequence
+        // taken here and the possibly stale row is returned but not cached
+        long sequence = commitSequence();
+        List<AccountSummary> rows = primaryRead.execute(status -> accountRepository.findSummariesByUserId(userId));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        AccountSummary row = rows.get(0);
+        CachedAccount loaded = new CachedAccount(row, row.getBalance(), expiry());
+
+        synchronized (this) {
+            if (sequences.unchangedSince(row.getAccountId(), sequence)) {
+                accounts.put(row.getAccountId(), loaded);
+                primaryByUser.put(userId, row.getAccountId());
+            }
+        }
+        return Optional.of(loaded);
+    }
+
+    // Called by a posting after it has changed the balance, while it still holds the row lock
+    public void updateAfterCommit(UUID accountId, BigDecimal balance) {
+        long stamp = stamps.incrementAndGet();
+        afterCommit(() -> {
+            synchronized (this) {
+                CachedAccount cached = accounts.get(accountId);
+                if (!commit(accountId, stamp)) {
+                    // A later posting for this stripe already committed; its balance may not
+                    // have been written through yet, so drop ours rather than risk going back
+                    accounts.remove(accountId);
+                } else if (cached != null) {
+                    accounts.put(accountId, cached.withBalance(balance));
+                }
+            }
+        });
+    }
+
+    public void evictAfterCommit(UUID accountId) {
+        long stamp = stamps.incrementAndGet();
+        afterCommit(() -> {
+            synchronized (this) {
+                commit(accountId, stamp);
+                accounts.remove(accountId);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return accounts.size();
+    }
+
+    private synchronized CachedAccount lookup(UUID userId) {
+        UUID accountId = primaryByUser.get(userId);
+        if (accountId == null) {
+            return null;
+        }
+        CachedAccount cached = accounts.get(accountId);
+        if (cached == null || cached.expiresAt - System.nanoTime() < 0) {
+            accounts.remove(accountId);
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized long commitSequence() {
+        return sequences.snapshot();
+    }
+
+    // Records the stamp as committed; false when a newer stamp for the stripe got there first
+    private boolean commit(UUID accountId, long stamp) {
+        int stripe = StripeSequences.stripe(accountId);
+        sequences.record(accountId);
+        if (committedStamps[stripe] > stamp) {
+            return false;
+        }
+        committedStamps[stripe] = stamp;
+        return true;
+    }
+
+    private long expiry() {
+        return System.nanoTime() + ttlSeconds * 1_000_000_000L;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class CachedAccount implements AccountSummary {
+        private final UUID accountId;
+        private final String accountNumber;
+        private final BigDecimal balance;
+        private final String accountType;
+        private final Boolean isActive;
+        private final String branchCode;
+        private final String branchName;
+        private final LocalDateTime createdAt;
+        private final long expiresAt;
+
+        CachedAccount(AccountSummary source, BigDecimal balance, long expiresAt) {
+            this.accountId = source.getAccountId();
+            this.accountNumber = source.getAccountNumber();
+            this.balance = balance;
+            this.accountType = source.getAccountType();
+            this.isActive = source.getIsActive();
+            this.branchCode = source.getBranchCode();
+            this.branchName = source.getBranchName();
+            this.createdAt = source.getCreatedAt();
+            this.expiresAt = expiresAt;
+        }
+
+        // Written-through balances keep the load's expiry, so changes made outside the
+        // posting paths still show up within the TTL
+        CachedAccount withBalance(BigDecimal newBalance) {
+            return new CachedAccount(this, newBalance, expiresAt);
+        }
+
+        @Override
+        public UUID getAccountId() { return accountId; }
+
+        @Override
+        public String getAccountNumber() { return accountNumber; }
+
+        @Override
+        public BigDecimal getBalance() { return balance; }
+
+        @Override
+        public String getAccountType() { return accountType; }
+
+        @Override
+        public Boolean getIsActive() { return isActive; }
+
+        @Override
+        public String getBranchCode() { return branchCode; }
+
+        @Override
+        public String getBranchName() { return branchName; }
+
+        @Override
+        public LocalDateTime getCreatedAt() { return createdAt; }
+    }
+}
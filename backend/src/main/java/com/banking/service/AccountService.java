@@ -1,5 +1,6 @@
 package com.banking.service;
 
+import com.banking.dto.AccountSummary;
 import com.banking.model.Account;
 import com.banking.model.Branch;
 import com.banking.model.User;
@@ -24,6 +25,9 @@ public class AccountService {
     @Autowired
     private BranchRepository branchRepository;
     
+    @Autowired
+    private AccountCache accountCache;
+    
     public Account createAccount(User user, String branchCode) {
         Branch branch = branchRepository.findById(branchCode)
                 .orElseGet(() -> {
@@ -58,6 +62,11 @@ public class AccountService {
         return accountRepository.findByUserAndIsActive(user, true);
     }
     
+    @Transactional(readOnly = true)
+    public List<AccountSummary> findAccountSummaries(UUID userId) {
+        return accountRepository.findSummariesByUserId(userId);
+    }
+    
     public Optional<Account> findPrimaryAccount(UUID userId) {
         return accountRepository.findPrimaryAccountByUserId(userId);
     }
@@ -78,6 +87,7 @@ public class AccountService {
         
         account.setIsActive(false);
         accountRepository.save(account);
+        accountCache.evictAfterCommit(accountId);
     }
     
     @Transactional(readOnly = true)
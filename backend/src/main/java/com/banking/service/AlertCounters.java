@@ -0,0 +1,155 @@
+package com.banking.service;
+
+import com.banking.dto.AlertEvent;
+import com.banking.model.Alert;
+import com.banking.repository.AlertRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Unresolved alert counts per type and per account, so the admin queue and account pages never
+// COUNT over the backlog. Loaded with two GROUP BY queries at startup, moved by alerts as they are
+// raised and resolved (after commit), and reloaded every banking.alerts.counts.reload-ms to repair
+// any drift, e.g. from alerts changed outside AlertService.
+@Service
+public class AlertCounters {
+
+    // A load that overlaps a commit is retried, and kept after this many tries regardless
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Loads read the primary, so they never start behind changes already counted
+    private TransactionTemplate primaryRead;
+
+    // Guarded by this. Accounts and types drop out when their count reaches zero; alerts without a
+    // type count towards their account and the total only.
+    private Map<String, Long> byType = new HashMap<>();
+    private Map<UUID, Long> byAccount = new HashMap<>();
+    private long total;
+
+    // Bumped by every applied change (guarded by this); a load that saw it move may be off by it
+    private long changeSequence;
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        meterRegistry.gauge("banking.alerts.unresolved", this, counters -> counters.unresolved());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${banking.alerts.counts.reload-ms:600000}",
+               initialDelayString = "${banking.alerts.counts.reload-ms:600000}")
+    public void reload() {
+        for (int attempt = 1; ; attempt++) {
+            long sequence;
+            synchronized (this) {
+                sequence = changeSequence;
+            }
+            Map<String, Long> types = new HashMap<>();
+            Map<UUID, Long> accounts = new HashMap<>();
+            primaryRead.executeWithoutResult(status -> {
+                for (Object[] row : alertRepository.countUnresolvedByType()) {
+                    if (row[0] != null) {
+                        types.put((String) row[0], (Long) row[1]);
+                    }
+                }
+                for (Object[] row : alertRepository.countUnresolvedByAccount()) {
+                    accounts.put((UUID) row[0], (Long) row[1]);
+                }
+            });
+
+            synchronized (this) {
+                if (changeSequence == sequence || attempt == MAX_LOAD_ATTEMPTS) {
+                    byType = types;
+                    byAccount = accounts;
+                    total = accounts.values().stream().mapToLong(Long::longValue).sum();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Called with alerts just raised (delta 1) or resolved (delta -1); applied once the caller commits
+    public void countAfterCommit(List<Alert> alerts, int delta) {
+        List<Object[]> changes = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            changes.add(new Object[] {alert.getAlertType(), alert.getAccount().getAccountId()});
+        }
+        applyAfterCommit(changes, delta);
+    }
+
+    // As countAfterCommit, for alerts changed by a bulk UPDATE and read back as events
+    public void countEventsAfterCommit(List<AlertEvent> events, int delta) {
+        List<Object[]> changes = new ArrayList<>(events.size());
+        for (AlertEvent event : events) {
+            changes.add(new Object[] {event.getAlertType(), event.getAccountId()});
+        }
+        applyAfterCommit(changes, delta);
+    }
+
+    private void applyAfterCommit(List<Object[]> changes, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(changes, delta);
+            }
+        });
+    }
+
+    public synchronized long unresolved() {
+        return total;
+    }
+
+    public synchronized long unresolvedForAccount(UUID accountId) {
+        return byAccount.getOrDefault(accountId, 0L);
+    }
+
+    public synchronized Map<String, Long> unresolvedByType() {
+        return new TreeMap<>(byType);
+    }
+
+    private synchronized void apply(List<Object[]> changes, int delta) {
+        changeSequence++;
+        for (Object[] change : changes) {
+            if (change[0] != null) {
+                adjust(byType, (String) change[0], delta);
+            }
+            adjust(byAccount, (UUID) change[1], delta);
+        }
+        total = Math.max(0, total + (long) delta * changes.size());
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, int delta) {
+        counts.compute(key, (k, count) -> {
+            long updated = (count != null ? count : 0) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+}
@@ -0,0 +1,292 @@
+package com.banking.service;
+
+import com.banking.dto.AlertEvent;
+import com.banking.model.Alert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Fans alert changes out to the admin consoles on /admin/alerts/stream. Event ids are
+// "<boot>-<sequence>"; the last banking.alerts.stream.replay-size events are kept so a console
+// reconnecting with Last-Event-ID gets exactly what it missed. Anything older, or an id from before
+// a restart, gets a "reset" event telling the console to reload the alert list instead.
+//
+// Publishing never waits on a console: each subscriber has its own bounded queue, drained by its
+// own virtual thread. A console that falls banking.alerts.stream.subscriber-buffer events behind
+// is disconnected; its reconnect replays from the ring.
+@Service
+public class AlertHub {
+
+    // Queued to a subscriber to send an SSE comment, which keeps proxies from closing an idle stream
+    private static final AlertEvent HEARTBEAT = new AlertEvent();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.alerts.stream.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${banking.alerts.stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    // Consoles reconnect when the stream times out, resuming from their Last-Event-ID
+    @Value("${banking.alerts.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+
+    private ExecutorService senders;
+
+    // Guarded by this. ring holds events lastSequence - ring.size() + 1 through lastSequence.
+    private final Deque<AlertEvent> ring = new ArrayDeque<>();
+    private long lastSequence;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    private Counter published;
+    private Counter slowDisconnects;
+
+    @PostConstruct
+    void init() {
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        published = meterRegistry.counter("banking.alerts.stream.events");
+        slowDisconnects = meterRegistry.counter("banking.alerts.stream.slow-disconnects");
+        meterRegistry.gauge("banking.alerts.stream.subscribers", this, hub -> hub.subscriberCount());
+    }
+
+    @PreDestroy
+    void stop() {
+        List<Subscriber> open;
+        synchronized (this) {
+            open = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        open.forEach(subscriber -> subscriber.close(false));
+        senders.shutdown();
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    // Replays what the console missed since lastEventId (null for a fresh console, which gets a
+    // "ready" event and then only new changes) and adds it to the fan-out, atomically with respect
+    // to publish(), so nothing is skipped or sent twice.
+    public SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        synchronized (this) {
+            List<AlertEvent> missed = missedSince(lastEventId);
+            Subscriber subscriber = new Subscriber(emitter, subscriberBuffer + (missed != null ? missed.size() : 1));
+            if (missed == null) {
+                subscriber.offer(control(lastEventId == null ? "ready" : "reset"));
+            } else {
+                missed.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+            emitter.onCompletion(() -> remove(subscriber));
+            emitter.onTimeout(() -> remove(subscriber));
+            emitter.onError(error -> remove(subscriber));
+        }
+        return emitter;
+    }
+
+    // Called with alerts just saved or changed; published once the transaction commits
+    public void publishAfterCommit(String event, List<Alert> alerts) {
+        List<AlertEvent> events = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            events.add(new AlertEvent(event, alert));
+        }
+        publishEventsAfterCommit(events);
+    }
+
+    // As publishAfterCommit, for changes read back as events rather than loaded as entities
+    public void publishEventsAfterCommit(List<AlertEvent> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(events);
+            }
+        });
+    }
+
+    public synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedRateString = "${banking.alerts.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        List<Subscriber> open;
+        synchronized (this) {
+            open = new ArrayList<>(subscribers);
+        }
+        open.forEach(Subscriber::heartbeat);
+    }
+
+    private void publish(List<AlertEvent> events) {
+        List<Subscriber> slow = new ArrayList<>();
+        synchronized (this) {
+            for (AlertEvent event : events) {
+                event.setId(boot + "-" + ++lastSequence);
+                ring.addLast(event);
+                if (ring.size() > replaySize) {
+                    ring.removeFirst();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    if (!subscriber.offer(event)) {
+                        slow.add(subscriber);
+                    }
+                }
+            }
+            subscribers.removeAll(slow);
+        }
+        published.increment(events.size());
+        for (Subscriber subscriber : slow) {
+            slowDisconnects.increment();
+            subscriber.close(true);
+        }
+    }
+
+    // The ring's events after lastEventId, or null when the console has to reload instead
+    private List<AlertEvent> missedSince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(boot + "-")) {
+            return null;
+        }
+        long sequence;
+        try {
+            sequence = Long.parseLong(lastEventId.substring(boot.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = lastSequence - ring.size() + 1;
+        if (sequence < oldest - 1 || sequence > lastSequence) {
+            return null;
+        }
+        List<AlertEvent> missed = new ArrayList<>((int) (lastSequence - sequence));
+        long position = oldest;
+        for (AlertEvent event : ring) {
+            if (position++ > sequence) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    // Carries the current position, so a console that reconnects after it resumes from here
+    private AlertEvent control(String name) {
+        AlertEvent event = new AlertEvent();
+        event.setId(boot + "-" + lastSequence);
+        event.setEvent(name);
+        return event;
+    }
+
+    private synchronized void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final int capacity;
+
+        // Guarded by this
+        private final Deque<AlertEvent> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+
+        // False when the queue is full; the caller then disconnects the subscriber
+        synchronized boolean offer(AlertEvent event) {
+            if (closed) {
+                return true;
+            }
+            if (pending.size() >= capacity) {
+                closed = true;
+                pending.clear();
+                return false;
+            }
+            pending.addLast(event);
+            if (!sending) {
+                sending = true;
+                senders.execute(this::drain);
+            }
+            return true;
+        }
+
+        // Skipped when events are already queued; they keep the connection busy anyway
+        synchronized void heartbeat() {
+            if (pending.isEmpty()) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        // complete() waits for a send in progress, so it runs on a sender thread, never the publisher's
+        void close(boolean slow) {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            senders.execute(() -> {
+                if (slow) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("disconnected: too far behind"));
+                    } catch (IOException | IllegalStateException e) {
+                        // Already gone
+                    }
+                }
+                emitter.complete();
+            });
+        }
+
+        private void drain() {
+            while (true) {
+                AlertEvent event;
+                synchronized (this) {
+                    event = pending.pollFirst();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().id(event.getId()).name(event.getEvent())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The console went away; the container completes the request itself
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                        sending = false;
+                    }
+                    remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
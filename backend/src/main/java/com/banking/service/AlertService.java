@@ -1,26 +1,108 @@
 package com.banking.service;
 
+import com.banking.dto.AlertEvent;
+import com.banking.dto.AlertLine;
+import com.banking.dto.AlertResolveRequest;
+import com.banking.dto.AlertResolveResult;
+import com.banking.dto.CursorPage;
+import com.banking.dto.KeysetCursor;
 import com.banking.model.Alert;
 import com.banking.model.User;
 import com.banking.repository.AlertRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @Transactional
 public class AlertService {
     
+    private static final int MAX_QUEUE_PAGE = 200;
+    
     @Autowired
     private AlertRepository alertRepository;
     
+    @Autowired
+    private AlertHub alertHub;
+    
+    @Autowired
+    private AlertCounters alertCounters;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${banking.alerts.resolve.chunk-size:500}")
+    private int resolveChunkSize;
+    
+    private TransactionTemplate chunkTransaction;
+    
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+    
+    // Saved in one batch and pushed to the alert stream once the caller's transaction commits
+    public List<Alert> raiseAlerts(List<Alert> alerts) {
+        List<Alert> saved = alertRepository.saveAll(alerts);
+        alertHub.publishAfterCommit("created", saved);
+        alertCounters.countAfterCommit(saved, 1);
+        return saved;
+    }
+    
+    // Keyset page of the alert queue, newest first, narrowed by whichever filters are given. Each
+    // filter combination is a range scan of one of the queue indexes in db/indexes-postgresql.sql.
     @Transactional(readOnly = true)
-    public List<Alert> getUnresolvedAlerts() {
-        return alertRepository.findUnresolvedAlerts();
+    public CursorPage<AlertLine> getAlertQueue(boolean resolved, String alertType, UUID accountId,
+                                               LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_QUEUE_PAGE) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_QUEUE_PAGE);
+        }
+        
+        // is_resolved is inlined, not bound, so PostgreSQL can match the partial indexes to the query
+        StringBuilder jpql = new StringBuilder("SELECT new com.banking.dto.AlertLine(a.alertId, acc.accountId, " +
+                "acc.accountNumber, a.transaction.txnId, a.alertType, a.message, a.isResolved, a.createdAt, a.resolvedAt) " +
+                "FROM Alert a JOIN a.account acc WHERE a.isResolved = " + resolved);
+        Map<String, Object> parameters = new HashMap<>();
+        appendFilters(jpql, parameters, alertType, accountId, from, to);
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            jpql.append(" AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.alertId < :alertId))");
+            parameters.put("createdAt", after.getCreatedAt());
+            parameters.put("alertId", after.getId());
+        }
+        jpql.append(" ORDER BY a.createdAt DESC, a.alertId DESC");
+        
+        TypedQuery<AlertLine> query = entityManager.createQuery(jpql.toString(), AlertLine.class);
+        parameters.forEach(query::setParameter);
+        // Fetch one extra row to learn whether another page exists
+        List<AlertLine> rows = query.setMaxResults(limit + 1).getResultList();
+        
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            AlertLine last = rows.get(limit - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getAlertId()).encode();
+        }
+        return new CursorPage<>(rows, next);
     }
     
     @Transactional(readOnly = true)
@@ -33,19 +115,119 @@ public class AlertService {
         return alertRepository.findByAlertType(alertType);
     }
     
+    // Resolves the requested alerts banking.alerts.resolve.chunk-size at a time, each chunk one
+    // UPDATE in a transaction of its own, so clearing thousands never holds thousands of row locks.
+    // A filter is worked off oldest first over the queue indexes until nothing unresolved matches
+    // it; alerts raised meanwhile are left alone. If a chunk fails, the earlier ones stay resolved.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertResolveResult resolveAlerts(AlertResolveRequest request, User resolvedBy) {
+        boolean byIds = request.getAlertIds() != null && !request.getAlertIds().isEmpty();
+        if (byIds == request.hasFilter()) {
+            throw new RuntimeException("Give either alertIds or a filter (alertType, accountId, from, to)");
+        }
+        // Stored precision, so the chunk's changes can be read back by it
+        LocalDateTime resolvedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        AlertResolveResult result = new AlertResolveResult();
+        
+        try {
+            if (byIds) {
+                List<UUID> alertIds = new ArrayList<>(new LinkedHashSet<>(request.getAlertIds()));
+                for (int start = 0; start < alertIds.size(); start += resolveChunkSize) {
+                    List<UUID> chunk = alertIds.subList(start, Math.min(alertIds.size(), start + resolveChunkSize));
+                    result.addChunk(chunkTransaction.execute(status -> resolveChunk(chunk, resolvedBy, resolvedAt)));
+                }
+                result.setSkipped(alertIds.size() - result.getResolved());
+            } else {
+                LocalDateTime to = request.getTo() != null && request.getTo().isBefore(resolvedAt) ? request.getTo() : resolvedAt;
+                StringBuilder jpql = new StringBuilder("SELECT a.alertId FROM Alert a WHERE a.isResolved = false");
+                Map<String, Object> parameters = new HashMap<>();
+                appendFilters(jpql, parameters, request.getAlertType(), request.getAccountId(), request.getFrom(), to);
+                jpql.append(" ORDER BY a.createdAt, a.alertId");
+                
+                int selected;
+                do {
+                    int[] counts = chunkTransaction.execute(status -> {
+                        TypedQuery<UUID> query = entityManager.createQuery(jpql.toString(), UUID.class);
+                        parameters.forEach(query::setParameter);
+                        List<UUID> chunk = query.setMaxResults(resolveChunkSize).getResultList();
+                        return new int[] {chunk.size(), chunk.isEmpty() ? 0 : resolveChunk(chunk, resolvedBy, resolvedAt)};
+                    });
+                    selected = counts[0];
+                    if (selected > 0) {
+                        result.addChunk(counts[1]);
+                    }
+                } while (selected == resolveChunkSize);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Resolved " + result.getResolved() + " alerts before failing: " + e.getMessage(), e);
+        }
+        return result;
+    }
+    
     public Alert resolveAlert(UUID alertId, User resolvedBy) {
+        // The same conditional UPDATE as the bulk path: of two concurrent resolves only one changes
+        // the row, and only that one is published and moves the unresolved counts
+        LocalDateTime resolvedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int resolved = alertRepository.resolveAll(List.of(alertId), resolvedBy, resolvedAt);
         Alert alert = alertRepository.findById(alertId)
                 .orElseThrow(() -> new RuntimeException("Alert not found"));
-        
-        alert.setIsResolved(true);
-        alert.setResolvedBy(resolvedBy);
-        alert.setResolvedAt(LocalDateTime.now());
-        
-        return alertRepository.save(alert);
+        if (resolved == 1) {
+            alertHub.publishAfterCommit("resolved", List.of(alert));
+            alertCounters.countAfterCommit(List.of(alert), -1);
+        }
+        return alert;
     }
     
-    @Transactional(readOnly = true)
+    // One set-based UPDATE, then the rows it changed are read back for the stream and the counts
+    private int resolveChunk(List<UUID> alertIds, User resolvedBy, LocalDateTime resolvedAt) {
+        int resolved = alertRepository.resolveAll(alertIds, resolvedBy, resolvedAt);
+        if (resolved == 0) {
+            return 0;
+        }
+        List<AlertEvent> events = alertRepository.findResolvedBy(alertIds, resolvedBy, resolvedAt);
+        for (AlertEvent event : events) {
+            event.setEvent("resolved");
+            event.setIsResolved(true);
+            event.setResolvedBy(resolvedBy.getUserId());
+            event.setResolvedAt(resolvedAt);
+        }
+        alertHub.publishEventsAfterCommit(events);
+        alertCounters.countEventsAfterCommit(events, -1);
+        return resolved;
+    }
+    
+    private static void appendFilters(StringBuilder jpql, Map<String, Object> parameters, String alertType,
+                                      UUID accountId, LocalDateTime from, LocalDateTime to) {
+        if (alertType != null) {
+            jpql.append(" AND a.alertType = :alertType");
+            parameters.put("alertType", alertType);
+        }
+        if (accountId != null) {
+            jpql.append(" AND a.account.accountId = :accountId");
+            parameters.put("accountId", accountId);
+        }
+        if (from != null) {
+            jpql.append(" AND a.createdAt >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND a.createdAt < :to");
+            parameters.put("to", to);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long getUnresolvedAlertCount(UUID accountId) {
-        return alertRepository.countUnresolvedAlertsByAccount(accountId);
+        return alertCounters.unresolvedForAccount(accountId);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getUnresolvedAlertTotal() {
+        return alertCounters.unresolved();
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Long> getUnresolvedAlertCounts() {
+        return alertCounters.unresolvedByType();
     }
 }
@@ -0,0 +1,163 @@
+package com.banking.service;
+
+import com.banking.dto.PostingBalance;
+import com.banking.model.BalanceSnapshot;
+import com.banking.repository.BalanceSnapshotRepository;
+import com.banking.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Nightly per-account closing balances, so a point-in-time balance is one snapshot plus at most a
+// day of postings instead of a walk through the account's history.
+@Service
+public class BalanceSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+    private static final Comparator<PostingBalance> POSTING_ORDER =
+            Comparator.comparing(PostingBalance::getCreatedAt).thenComparing(PostingBalance::getTxnId);
+
+    // Advisory lock key held by the instance writing the nightly snapshots
+    private static final long SNAPSHOT_LOCK = 0x62616c736e6170L; // "balsnap"
+
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // With no snapshots yet, the first run covers this many days back
+    @Value("${banking.snapshots.backfill-days:90}")
+    private int backfillDays;
+
+    // Each day is written in its own transaction against the primary
+    private TransactionTemplate dayTransaction;
+
+    @PostConstruct
+    void init() {
+        dayTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Catches up every day that has ended since the last run, so a missed night is filled in. Every
+    // instance schedules it; on PostgreSQL a session advisory lock lets one of them run it while the
+    // others skip, rather than all rewriting the same days and colliding on
+    // uk_balance_snapshots_account_date.
+    @Scheduled(cron = "${banking.snapshots.cron:0 10 0 * * *}")
+    public void snapshotNightly() {
+        try (Connection lock = dataSource.getConnection()) {
+            boolean postgres = "PostgreSQL".equals(lock.getMetaData().getDatabaseProductName());
+            if (postgres && !advisoryLock(lock, "pg_try_advisory_lock")) {
+                log.info("Balance snapshots skipped: another instance is writing them");
+                return;
+            }
+            try {
+                int written = snapshotThrough(LocalDate.now().minusDays(1));
+                log.info("Balance snapshots written: {}", written);
+            } finally {
+                if (postgres) {
+                    advisoryLock(lock, "pg_advisory_unlock");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Balance snapshot lock failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, SNAPSHOT_LOCK);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    public int snapshotThrough(LocalDate lastDay) {
+        LocalDate latest = snapshotRepository.findLatestSnapshotDate();
+        LocalDate day = latest != null ? latest.plusDays(1) : lastDay.minusDays(backfillDays - 1);
+        int written = 0;
+        for (; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            written += snapshotDay(day);
+        }
+        return written;
+    }
+
+    // One row for each account with completed postings on the day; rerunning a day replaces its rows
+    public int snapshotDay(LocalDate day) {
+        Integer written = dayTransaction.execute(status -> {
+            snapshotRepository.deleteBySnapshotDate(day);
+
+            Map<UUID, DayTotals> totals = new HashMap<>();
+            try (Stream<PostingBalance> postings = transactionRepository.streamPostingsBetween(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+                postings.forEach(posting -> totals.computeIfAbsent(posting.getAccountId(), id -> new DayTotals())
+                        .add(posting));
+            }
+
+            List<BalanceSnapshot> snapshots = new ArrayList<>(totals.size());
+            totals.forEach((accountId, dayTotals) -> snapshots.add(new BalanceSnapshot(accountId, day,
+                    dayTotals.last.getBalanceAfter(), dayTotals.netChange, dayTotals.count)));
+            snapshotRepository.saveAll(snapshots);
+            return snapshots.size();
+        });
+        return written != null ? written : 0;
+    }
+
+    // Balance right after the last completed posting at or before the instant
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAt(UUID accountId, LocalDateTime instant) {
+        return snapshotRepository
+                .findFirstByAccountIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(accountId, instant.toLocalDate())
+                .map(snapshot -> snapshot.getClosingBalance().add(transactionRepository.sumAmountsBetween(
+                        accountId, snapshot.getSnapshotDate().plusDays(1).atStartOfDay(), instant)))
+                // Nothing snapshotted before the instant's day: the latest posting's balance, if any
+                .orElseGet(() -> transactionRepository
+                        .findBalancesAtOrBefore(accountId, instant, PageRequest.of(0, 1))
+                        .stream().findFirst().orElse(BigDecimal.ZERO));
+    }
+
+    private static final class DayTotals {
+        private PostingBalance last;
+        private BigDecimal netChange = BigDecimal.ZERO;
+        private int count;
+
+        void add(PostingBalance posting) {
+            if (last == null || POSTING_ORDER.compare(posting, last) > 0) {
+                last = posting;
+            }
+            netChange = netChange.add(posting.getAmount());
+            count++;
+        }
+    }
+}
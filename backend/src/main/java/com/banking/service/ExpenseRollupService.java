@@ -0,0 +1,206 @@
+package com.banking.service;
+
+import com.banking.dto.ExpenseTotal;
+import com.banking.model.ExpenseDailyRollup;
+import com.banking.model.ExpenseMonthlyRollup;
+import com.banking.repository.ExpenseDailyRollupRepository;
+import com.banking.repository.ExpenseMonthlyRollupRepository;
+import com.banking.repository.ExpenseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Per-user expense totals by (month, category) and by day, so the summary endpoints read a few
+// rollup rows instead of every expense. addExpense and imports add to them in the expenses' own
+// transaction; rebuild() recomputes them from the expenses table, either from POST /admin/expenses/rollups/rebuild
+// or at startup when the application is started with --rebuild-expense-rollups.
+@Service
+public class ExpenseRollupService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    private static final LocalDate ALL_FROM = LocalDate.of(1, 1, 1);
+    private static final LocalDate ALL_TO = LocalDate.of(9999, 12, 31);
+
+    private static final int APPLY_BATCH_SIZE = 1000;
+
+    private static final Comparator<ExpenseMonthlyRollup.Key> MONTH_ORDER =
+            Comparator.comparing(ExpenseMonthlyRollup.Key::getMonthStart).thenComparing(ExpenseMonthlyRollup.Key::getCategory);
+
+    // PostgreSQL: concurrent first expenses of a month both land, one as the insert and one as the update
+    private static final String MONTH_UPSERT = "INSERT INTO expense_monthly_rollups (user_id, month_start, category, total, expense_count) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, month_start, category) DO UPDATE SET " +
+            "total = expense_monthly_rollups.total + EXCLUDED.total, " +
+            "expense_count = expense_monthly_rollups.expense_count + EXCLUDED.expense_count";
+
+    private static final String DAY_UPSERT = "INSERT INTO expense_daily_rollups (user_id, expense_date, total, expense_count) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, expense_date) DO UPDATE SET " +
+            "total = expense_daily_rollups.total + EXCLUDED.total, " +
+            "expense_count = expense_daily_rollups.expense_count + EXCLUDED.expense_count";
+
+    // Standard SQL for other databases (H2 in tests)
+    private static final String MONTH_MERGE = "MERGE INTO expense_monthly_rollups r " +
+            "USING (VALUES (?, ?, ?, ?, ?)) AS v (user_id, month_start, category, amount, n) " +
+            "ON r.user_id = v.user_id AND r.month_start = v.month_start AND r.category = v.category " +
+            "WHEN MATCHED THEN UPDATE SET total = r.total + v.amount, expense_count = r.expense_count + v.n " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, month_start, category, total, expense_count) " +
+            "VALUES (v.user_id, v.month_start, v.category, v.amount, v.n)";
+
+    private static final String DAY_MERGE = "MERGE INTO expense_daily_rollups r " +
+            "USING (VALUES (?, ?, ?, ?)) AS v (user_id, expense_date, amount, n) " +
+            "ON r.user_id = v.user_id AND r.expense_date = v.expense_date " +
+            "WHEN MATCHED THEN UPDATE SET total = r.total + v.amount, expense_count = r.expense_count + v.n " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, expense_date, total, expense_count) " +
+            "VALUES (v.user_id, v.expense_date, v.amount, v.n)";
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate userTransaction;
+
+    // INSERT ... ON CONFLICT on PostgreSQL, standard MERGE elsewhere
+    private boolean upsert;
+
+    @PostConstruct
+    void init() {
+        userTransaction = new TransactionTemplate(transactionManager);
+
+        try (Connection connection = dataSource.getConnection()) {
+            upsert = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            upsert = false;
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-expense-rollups")) {
+            log.info("Expense rollups rebuilt for {} users", rebuild());
+        }
+    }
+
+    // Joins the caller's transaction, so the rollups commit or roll back with the expense
+    @Transactional
+    public void record(UUID userId, LocalDate date, String category, BigDecimal amount) {
+        Deltas deltas = new Deltas(userId);
+        deltas.add(date, category, amount);
+        apply(deltas);
+    }
+
+    // Adds the summed changes to the rollups in the caller's transaction: one JDBC batch per rollup
+    // table, however many expenses went into them
+    @Transactional
+    public void apply(Deltas deltas) {
+        jdbcTemplate.batchUpdate(upsert ? MONTH_UPSERT : MONTH_MERGE, deltas.months.values(), APPLY_BATCH_SIZE, (ps, month) -> {
+            ps.setObject(1, deltas.userId);
+            ps.setObject(2, month.getMonthStart());
+            ps.setString(3, month.getCategory());
+            ps.setBigDecimal(4, month.getTotal());
+            ps.setInt(5, month.getExpenseCount());
+        });
+        jdbcTemplate.batchUpdate(upsert ? DAY_UPSERT : DAY_MERGE, deltas.days.values(), APPLY_BATCH_SIZE, (ps, day) -> {
+            ps.setObject(1, deltas.userId);
+            ps.setObject(2, day.getExpenseDate());
+            ps.setBigDecimal(3, day.getTotal());
+            ps.setInt(4, day.getExpenseCount());
+        });
+    }
+
+    // One transaction per user. Expenses added for a user while that user is being rebuilt can be
+    // missed or counted twice, so run it as a backfill with expense writes stopped.
+    public int rebuild() {
+        List<UUID> userIds = expenseRepository.findUserIdsWithExpenses();
+        for (UUID userId : userIds) {
+            rebuildUser(userId);
+        }
+        return userIds.size();
+    }
+
+    public void rebuildUser(UUID userId) {
+        userTransaction.executeWithoutResult(status -> {
+            monthlyRollupRepository.deleteByUser(userId);
+            dailyRollupRepository.deleteByUser(userId);
+
+            // Grouped in the database; the daily rollup folds the day's categories together. persist
+            // rather than saveAll, which would SELECT each assigned key before inserting it.
+            for (ExpenseTotal row : expenseRepository.sumByMonthAndCategory(userId, ALL_FROM, ALL_TO)) {
+                entityManager.persist(new ExpenseMonthlyRollup(userId, row.getBucket(), row.getCategory(),
+                        row.getTotal(), row.getCount().intValue()));
+            }
+            Map<LocalDate, ExpenseDailyRollup> days = new HashMap<>();
+            for (ExpenseTotal row : expenseRepository.sumByDayAndCategory(userId, ALL_FROM, ALL_TO)) {
+                ExpenseDailyRollup day = days.computeIfAbsent(row.getBucket(),
+                        date -> new ExpenseDailyRollup(userId, date, BigDecimal.ZERO, 0));
+                day.setTotal(day.getTotal().add(row.getTotal()));
+                day.setExpenseCount(day.getExpenseCount() + row.getCount().intValue());
+            }
+            days.values().forEach(entityManager::persist);
+        });
+    }
+
+    // One user's rollup changes, summed per (month, category) and per day, so an import of any size
+    // holds one entry per distinct key. Kept in key order, so concurrent writers for the same user
+    // lock the rollup rows in the same order.
+    public static final class Deltas {
+        private final UUID userId;
+        private final Map<ExpenseMonthlyRollup.Key, ExpenseMonthlyRollup> months = new TreeMap<>(MONTH_ORDER);
+        private final Map<LocalDate, ExpenseDailyRollup> days = new TreeMap<>();
+
+        public Deltas(UUID userId) {
+            this.userId = userId;
+        }
+
+        public void add(LocalDate date, String category, BigDecimal amount) {
+            LocalDate monthStart = date.withDayOfMonth(1);
+            ExpenseMonthlyRollup month = months.computeIfAbsent(new ExpenseMonthlyRollup.Key(userId, monthStart, category),
+                    key -> new ExpenseMonthlyRollup(userId, monthStart, category, BigDecimal.ZERO, 0));
+            month.setTotal(month.getTotal().add(amount));
+            month.setExpenseCount(month.getExpenseCount() + 1);
+
+            ExpenseDailyRollup day = days.computeIfAbsent(date, d -> new ExpenseDailyRollup(userId, d, BigDecimal.ZERO, 0));
+            day.setTotal(day.getTotal().add(amount));
+            day.setExpenseCount(day.getExpenseCount() + 1);
+        }
+    }
+}
@@ -1,26 +1,83 @@
 package com.banking.service;
 
+import com.banking.dto.ExpenseImportReport;
+import com.banking.dto.ExpenseTotal;
 import com.banking.model.Expense;
+import com.banking.model.ExpenseDailyRollup;
 import com.banking.model.User;
+import com.banking.model.UuidV7Generator;
+import com.banking.repository.ExpenseDailyRollupRepository;
+import com.banking.repository.ExpenseMonthlyRollupRepository;
 import com.banking.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
 public class ExpenseService {
 
+    public static final Set<String> IMPORT_FORMATS = Set.of("csv", "ndjson");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    // Off: summaries are grouped by the database straight from the expenses table. Off by default,
+    // since the rollup tables start empty on a database that already has expenses; turn it on once
+    // they have been backfilled with --rebuild-expense-rollups. Expenses are added to the rollups
+    // either way, so they stay in step after the backfill.
+    @Value("${banking.expense-rollups.enabled:false}")
+    private boolean rollupsEnabled;
+
+    @Value("${banking.expense-import.batch-size:1000}")
+    private int importBatchSize;
+
+    @Value("${banking.expense-import.max-errors:1000}")
+    private int maxImportErrors;
+
+    // Longer lines are rejected without being buffered; a valid row is a few hundred characters
+    @Value("${banking.expense-import.max-line-length:4096}")
+    private int maxLineLength;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public Expense addExpense(User user, LocalDate date, String category, BigDecimal amount, String note) {
         Expense expense = new Expense();
         expense.setUser(user);
@@ -28,43 +85,297 @@ public class ExpenseService {
         expense.setCategory(category);
         expense.setAmount(amount);
         expense.setNote(note);
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        rollupService.record(user.getUserId(), date, category, amount);
+        return saved;
     }
 
+    // Whole months from the monthly rollup; the current month only up to today, from the daily one
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getMonthlySummary(User user, int monthsBack) {
         LocalDate end = LocalDate.now();
         LocalDate start = end.minusMonths(monthsBack).withDayOfMonth(1);
 
-        List<Expense> expenses = expenseRepository.findForUserInRange(user, start, end);
+        if (!rollupsEnabled) {
+            Map<String, BigDecimal> monthTotals = new HashMap<>();
+            for (ExpenseTotal row : expenseRepository.sumByMonthAndCategory(user.getUserId(), start, end)) {
+                monthTotals.merge(YearMonth.from(row.getBucket()).toString(), row.getTotal(), BigDecimal::add);
+            }
+            return monthTotals;
+        }
+
+        LocalDate currentMonth = end.withDayOfMonth(1);
+
         Map<String, BigDecimal> monthTotals = new HashMap<>();
+        for (Object[] row : monthlyRollupRepository.sumByMonth(user.getUserId(), start, currentMonth)) {
+            monthTotals.put(YearMonth.from((LocalDate) row[0]).toString(), (BigDecimal) row[1]); // e.g. 2025-03
+        }
 
-        for (Expense e : expenses) {
-            YearMonth ym = YearMonth.from(e.getDate());
-            String key = ym.toString(); // e.g. 2025-03
-            monthTotals.put(key, monthTotals.getOrDefault(key, BigDecimal.ZERO).add(e.getAmount()));
+        BigDecimal current = BigDecimal.ZERO;
+        for (ExpenseDailyRollup day : dailyRollupRepository.findByUserIdAndExpenseDateBetween(user.getUserId(), currentMonth, end)) {
+            current = current.add(day.getTotal());
+        }
+        if (current.signum() != 0) {
+            monthTotals.put(YearMonth.from(end).toString(), current);
         }
 
         return monthTotals;
     }
 
+    @Transactional(readOnly = true)
     public Map<Integer, BigDecimal> getDailySummaryForMonth(User user, YearMonth month) {
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
 
-        List<Expense> expenses = expenseRepository.findForUserInRange(user, start, end);
         Map<Integer, BigDecimal> dayTotals = new HashMap<>();
+        if (!rollupsEnabled) {
+            for (ExpenseTotal row : expenseRepository.sumByDayAndCategory(user.getUserId(), start, end)) {
+                dayTotals.merge(row.getBucket().getDayOfMonth(), row.getTotal(), BigDecimal::add);
+            }
+            return dayTotals;
+        }
 
-        for (Expense e : expenses) {
-            int day = e.getDate().getDayOfMonth();
-            dayTotals.put(day, dayTotals.getOrDefault(day, BigDecimal.ZERO).add(e.getAmount()));
+        for (ExpenseDailyRollup day : dailyRollupRepository.findByUserIdAndExpenseDateBetween(user.getUserId(), start, end)) {
+            dayTotals.put(day.getExpenseDate().getDayOfMonth(), day.getTotal());
         }
 
         return dayTotals;
     }
 
+    // The upload is read one line at a time and written in JDBC batches of
+    // banking.expense-import.batch-size, so memory use is one batch plus the error report however
+    // large the file is. Invalid rows are skipped and reported; a database error rolls back the
+    // whole import.
+    public ExpenseImportReport importExpenses(User user, String format, InputStream in) throws IOException {
+        boolean csv = !"ndjson".equals(format);
+        LineReader reader = new LineReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE), maxLineLength);
+        ExpenseImportReport report = new ExpenseImportReport();
+        List<Expense> batch = new ArrayList<>(importBatchSize);
+        Map<String, Integer> columns = null;
+        ExpenseRollupService.Deltas rollups = new ExpenseRollupService.Deltas(user.getUserId());
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            // Byte order mark written by some spreadsheet exports
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (reader.isTooLong()) {
+                if (csv && columns == null) {
+                    throw new RuntimeException("CSV header is longer than " + maxLineLength + " characters");
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                report.reject(lineNumber, "Line is longer than " + maxLineLength + " characters", maxImportErrors);
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = csvHeader(line);
+                continue;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+            try {
+                batch.add(csv ? csvRow(user, columns, line) : ndjsonRow(user, line));
+            } catch (RuntimeException e) {
+                report.reject(lineNumber, e.getMessage(), maxImportErrors);
+                continue;
+            }
+            if (batch.size() == importBatchSize) {
+                insertBatch(user, batch, rollups);
+                report.setImported(report.getImported() + batch.size());
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(user, batch, rollups);
+            report.setImported(report.getImported() + batch.size());
+        }
+        rollupService.apply(rollups);
+        return report;
+    }
+
+    private void insertBatch(User user, List<Expense> batch, ExpenseRollupService.Deltas rollups) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (expense_id, user_id, expense_date, category, amount, note, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", batch, batch.size(), (ps, expense) -> {
+            ps.setObject(1, UuidV7Generator.nextUuid());
+            ps.setObject(2, user.getUserId());
+            ps.setObject(3, expense.getDate());
+            ps.setString(4, expense.getCategory());
+            ps.setBigDecimal(5, expense.getAmount());
+            ps.setString(6, expense.getNote());
+            ps.setTimestamp(7, now);
+        });
+        for (Expense expense : batch) {
+            rollups.add(expense.getDate(), expense.getCategory(), expense.getAmount());
+        }
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = csvFields(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("category") || !columns.containsKey("amount")) {
+            throw new RuntimeException("CSV header must name the date, category and amount columns");
+        }
+        return columns;
+    }
+
+    private static Expense csvRow(User user, Map<String, Integer> columns, String line) {
+        List<String> fields = csvFields(line);
+        return validExpense(user, field(fields, columns.get("date")), field(fields, columns.get("category")),
+                field(fields, columns.get("amount")), field(fields, columns.get("note")));
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may hold commas and doubled quotes
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private Expense ndjsonRow(User user, String line) {
+        JsonNode row;
+        try {
+            row = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid JSON");
+        }
+        if (!row.isObject()) {
+            throw new RuntimeException("Each line must be a JSON object");
+        }
+        return validExpense(user, text(row, "date"), text(row, "category"), text(row, "amount"), text(row, "note"));
+    }
+
+    private static String text(JsonNode row, String name) {
+        JsonNode value = row.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Same rules as the Expense entity's constraints, checked before the row reaches a batch
+    private static Expense validExpense(User user, String date, String category, String amount, String note) {
+        if (date == null || date.isBlank()) {
+            throw new RuntimeException("date is required");
+        }
+        if (category == null || category.isBlank()) {
+            throw new RuntimeException("category is required");
+        }
+        if (amount == null || amount.isBlank()) {
+            throw new RuntimeException("amount is required");
+        }
+
+        Expense expense = new Expense();
+        expense.setUser(user);
+        try {
+            expense.setDate(LocalDate.parse(date.trim()));
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("date must be YYYY-MM-DD");
+        }
+        if (category.trim().length() > 50) {
+            throw new RuntimeException("category must be at most 50 characters");
+        }
+        expense.setCategory(category.trim());
+        try {
+            expense.setAmount(new BigDecimal(amount.trim()));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("amount must be a number");
+        }
+        if (expense.getAmount().compareTo(new BigDecimal("0.01")) < 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        if (expense.getAmount().scale() > 2 || expense.getAmount().precision() - expense.getAmount().scale() > 13) {
+            throw new RuntimeException("amount must fit NUMERIC(15,2)");
+        }
+        if (note != null && note.length() > 255) {
+            throw new RuntimeException("note must be at most 255 characters");
+        }
+        expense.setNote(note != null ? note : "");
+        return expense;
+    }
+
     public List<Expense> getExpensesForMonth(User user, YearMonth month) {
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
         return expenseRepository.findForUserInRange(user, start, end);
     }
+
+    // BufferedReader.readLine with a cap: past maxLength characters the rest of the line is read
+    // and dropped rather than buffered, and isTooLong reports it
+    private static final class LineReader {
+        private final BufferedReader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(BufferedReader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        // Ends at \n, \r or \r\n like BufferedReader; null at the end of the input
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                    break;
+                }
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = reader.read();
+            }
+            return line.toString();
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package com.banking.service;
+
+// An Idempotency-Key replayed with a different request than the one it was first used for
+public class IdempotencyConflictException extends RuntimeException {
+    
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
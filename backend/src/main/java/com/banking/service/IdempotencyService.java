@@ -0,0 +1,152 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.IdempotencyKey;
+import com.banking.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionRetryPolicy retryPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate keyedTransaction;
+
+    @Value("${banking.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // Access-ordered LRU of recently committed keys by user and key; the table below it is the source of truth
+    private Map<String, IdempotencyKey> recentKeys;
+
+    private Counter memoryHits;
+    private Counter databaseHits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        keyedTransaction = new TransactionTemplate(transactionManager);
+        keyedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        recentKeys = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        memoryHits = meterRegistry.counter("banking.idempotency.requests", "result", "hit", "source", "memory");
+        databaseHits = meterRegistry.counter("banking.idempotency.requests", "result", "hit", "source", "database");
+        misses = meterRegistry.counter("banking.idempotency.requests", "result", "miss", "source", "none");
+    }
+
+    // Runs the posting at most once per user and key. A replay returns the transactionId stored for
+    // the first attempt without calling the posting, so the accounts table is never touched; a key
+    // sent again with a different request is rejected.
+    public UUID execute(UUID userId, String key, String operation, TransactionRequest request, Supplier<UUID> posting) {
+        if (userId == null) {
+            throw new RuntimeException("Idempotency-Key requires an authenticated user");
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(operation, request);
+
+        // The key lookup and the posting retry together, so a retried attempt re-checks the key
+        return retryPolicy.execute(operation.toLowerCase(), () -> {
+            try {
+                return keyedTransaction.execute(status -> executeOnce(userId, key, operation, request, requestHash, posting));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first request with this key committed ahead of us; our posting rolled
+                // back with the key, so answer with theirs
+                return keyedTransaction.execute(status -> idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                        .map(stored -> replay(stored, requestHash))
+                        .orElseThrow(() -> e));
+            }
+        });
+    }
+
+    private UUID executeOnce(UUID userId, String key, String operation, TransactionRequest request,
+                             String requestHash, Supplier<UUID> posting) {
+        String cacheKey = userId + ":" + key;
+        IdempotencyKey existing = recentKeys.get(cacheKey);
+        if (existing != null) {
+            memoryHits.increment();
+            return replay(existing, requestHash);
+        }
+
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            recentKeys.put(cacheKey, stored.get());
+            return replay(stored.get(), requestHash);
+        }
+
+        misses.increment();
+        UUID txnId = posting.get();
+
+        // Written in the same transaction as the posting: both commit or neither does. Flushed here
+        // so a duplicate surfaces as a DataIntegrityViolationException before commit.
+        IdempotencyKey record = idempotencyKeyRepository.saveAndFlush(
+                new IdempotencyKey(userId, key, operation, txnId, request.getAmount(), requestHash));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentKeys.put(cacheKey, record);
+            }
+        });
+
+        return txnId;
+    }
+
+    private UUID replay(IdempotencyKey record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different "
+                    + record.getOperation().toLowerCase() + " request");
+        }
+        return record.getTransactionId();
+    }
+
+    // Amounts are compared by value, so 25 and 25.00 are the same request
+    private static String fingerprint(String operation, TransactionRequest request) {
+        String amount = request.getAmount() != null ? request.getAmount().stripTrailingZeros().toPlainString() : "";
+        String canonical = operation + "|" + request.getAccountId() + "|" + request.getToAccountId() + "|" + amount;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionLine;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// The last few postings per account, kept in memory for mini-statements. A ring is hydrated from
+// the transactions table on first access and appended to by postings after they commit; the
+// least recently read accounts are dropped once banking.mini-statement.max-accounts is reached.
+@Service
+public class MiniStatementCache {
+
+    private static final Comparator<Line> CHRONOLOGICAL =
+            Comparator.comparing(Line::getCreatedAt).thenComparing(Line::getTxnId);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banking.mini-statement.size:10}")
+    private int statementSize;
+
+    @Value("${banking.mini-statement.max-accounts:10000}")
+    private int maxAccounts;
+
+    // Hydration reads the primary, so a ring never starts behind postings already appended
+    private TransactionTemplate primaryRead;
+
+    // Guarded by this
+    private Map<UUID, Ring> rings;
+
+    // Appends per stripe of accounts, so a hydration that overlaps one is served but not kept
+    // (guarded by this)
+    private final StripeSequences sequences = new StripeSequences();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        rings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Ring> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+        hits = meterRegistry.counter("banking.mini-statement.requests", "result", "hit");
+        misses = meterRegistry.counter("banking.mini-statement.requests", "result", "miss");
+    }
+
+    // Newest first
+    public List<TransactionLine> get(UUID accountId) {
+        long sequence;
+        synchronized (this) {
+            Ring ring = rings.get(accountId);
+            if (ring != null) {
+                hits.increment();
+                return ring.newestFirst();
+            }
+            sequence = sequences.snapshot();
+        }
+        misses.increment();
+
+        // Portable JPQL keyset query: the (account_id, created_at, txn_id) index serves it
+        List<TransactionLine> rows = primaryRead.execute(status ->
+                transactionRepository.findHistoryFirstPage(accountId, PageRequest.of(0, statementSize)));
+        Ring ring = new Ring(statementSize);
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            ring.append(new Line(rows.get(i)));
+        }
+
+        synchronized (this) {
+            if (sequences.unchangedSince(accountId, sequence)) {
+                rings.putIfAbsent(accountId, ring);
+            }
+        }
+        return ring.newestFirst();
+    }
+
+    // Called by postings with their (saved) Transaction rows; applied once the posting commits
+    public void appendAfterCommit(List<Transaction> postings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(postings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(postings);
+            }
+        });
+    }
+
+    private void append(List<Transaction> postings) {
+        for (Transaction posting : postings) {
+            // Only completed postings appear on a statement
+            if (posting.getStatus() != TransactionStatus.COMPLETED) {
+                continue;
+            }
+            UUID accountId = posting.getAccount().getAccountId();
+            Ring ring;
+            synchronized (this) {
+                sequences.record(accountId);
+                // Not hydrated (or evicted): nothing to keep current, the next read loads it
+                ring = rings.get(accountId);
+            }
+            if (ring != null) {
+                ring.append(new Line(posting));
+            }
+        }
+    }
+
+    // Fixed-size circular buffer, oldest to newest. Appends almost always arrive in commit order;
+    // the rare one that does not (after-commit hooks of two postings racing) is sorted into place.
+    private static final class Ring {
+        private final Line[] slots;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            this.slots = new Line[capacity];
+        }
+
+        synchronized void append(Line line) {
+            // A hydration can already hold a posting whose after-commit append runs later
+            for (Line kept : slots) {
+                if (kept != null && kept.getTxnId().equals(line.getTxnId())) {
+                    return;
+                }
+            }
+            if (size == slots.length && CHRONOLOGICAL.compare(line, slots[next]) < 0) {
+                // Older than everything kept
+                return;
+            }
+            slots[next] = line;
+            next = (next + 1) % slots.length;
+            size = Math.min(size + 1, slots.length);
+
+            int previous = Math.floorMod(next - 2, slots.length);
+            if (size > 1 && CHRONOLOGICAL.compare(line, slots[previous]) < 0) {
+                Line[] ordered = newestFirst().toArray(new Line[0]);
+                Arrays.sort(ordered, CHRONOLOGICAL);
+                Arrays.fill(slots, null);
+                System.arraycopy(ordered, 0, slots, 0, ordered.length);
+                next = ordered.length % slots.length;
+            }
+        }
+
+        synchronized List<TransactionLine> newestFirst() {
+            List<TransactionLine> lines = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                lines.add(slots[Math.floorMod(next - i, slots.length)]);
+            }
+            return lines;
+        }
+    }
+
+    private static final class Line implements TransactionLine {
+        private final UUID txnId;
+        private final LocalDateTime createdAt;
+        private final TransactionType type;
+        private final BigDecimal amount;
+        private final BigDecimal balanceAfter;
+        private final String description;
+        private final TransactionStatus status;
+
+        Line(TransactionLine row) {
+            this.txnId = row.getTxnId();
+            this.createdAt = row.getCreatedAt();
+            this.type = row.getType();
+            this.amount = row.getAmount();
+            this.balanceAfter = row.getBalanceAfter();
+            this.description = row.getDescription();
+            this.status = row.getStatus();
+        }
+
+        Line(Transaction posting) {
+            this.txnId = posting.getTxnId();
+            this.createdAt = posting.getCreatedAt();
+            this.type = posting.getType();
+            this.amount = posting.getAmount();
+            this.balanceAfter = posting.getBalanceAfter();
+            this.description = posting.getDescription();
+            this.status = posting.getStatus();
+        }
+
+        @Override
+        public UUID getTxnId() { return txnId; }
+
+        @Override
+        public LocalDateTime getCreatedAt() { return createdAt; }
+
+        @Override
+        public TransactionType getType() { return type; }
+
+        @Override
+        public BigDecimal getAmount() { return amount; }
+
+        @Override
+        public BigDecimal getBalanceAfter() { return balanceAfter; }
+
+        @Override
+        public String getDescription() { return description; }
+
+        @Override
+        public TransactionStatus getStatus() { return status; }
+    }
+}
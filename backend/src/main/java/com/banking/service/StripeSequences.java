@@ -0,0 +1,36 @@
+package com.banking.service;
+
+import java.util.UUID;
+
+// Orders the loads of an in-memory cache against the commits that keep it current. Accounts are
+// hashed into stripes, and each stripe remembers the sequence number of the last commit recorded
+// for it. A load takes a snapshot before it reads the database and keeps what it read only if its
+// stripe is still unchanged since then; otherwise a commit may have landed between the read and
+// the store, so the result is served but not kept. Not thread-safe: the owning cache guards it with
+// the same lock as its entries.
+final class StripeSequences {
+
+    static final int STRIPES = 1024;
+
+    private final long[] sequences = new long[STRIPES];
+    private long last;
+
+    // Taken before a load reads the database
+    long snapshot() {
+        return last;
+    }
+
+    // Called as a commit for the account is applied to the cache
+    void record(UUID accountId) {
+        sequences[stripe(accountId)] = ++last;
+    }
+
+    // Whether a load that took the snapshot may keep what it read for the account
+    boolean unchangedSince(UUID accountId, long snapshot) {
+        return sequences[stripe(accountId)] <= snapshot;
+    }
+
+    static int stripe(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,92 @@
+package com.banking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Component
+public class TransactionRetryPolicy {
+
+    // serialization_failure, deadlock_detected
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40001", "40P01");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${banking.retry.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${banking.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    // Runs a whole unit of work (one database transaction), re-running it when it fails with a
+    // retryable lock or serialization error. Inside a caller's transaction the failure has already
+    // poisoned that transaction, so the work runs once and the outermost unit of work retries.
+    public <T> T execute(String operation, Supplier<T> unitOfWork) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return unitOfWork.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = unitOfWork.get();
+                attempts(operation, "committed").record(attempt);
+                return result;
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    attempts(operation, "exhausted").record(attempt);
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockingFailureException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && RETRYABLE_SQL_STATES.contains(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Full jitter: sleep a random time up to an exponentially growing, capped ceiling
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying transaction", e);
+        }
+    }
+
+    private DistributionSummary attempts(String operation, String outcome) {
+        return DistributionSummary.builder("banking.transaction.attempts")
+                .description("Attempts needed per posting transaction")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(1, 2, 3, 4, 5, 8)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -1,5 +1,11 @@
 package com.banking.service;
 
+import com.banking.dto.BatchTransferResult;
+import com.banking.dto.CursorPage;
+import com.banking.dto.HighValueTransaction;
+import com.banking.dto.KeysetCursor;
+import com.banking.dto.RecentActivity;
+import com.banking.dto.TransactionLine;
 import com.banking.dto.TransactionRequest;
 import com.banking.model.Account;
 import com.banking.model.Transaction;
@@ -7,179 +13,413 @@ import com.banking.model.TransactionStatus;
 import com.banking.model.TransactionType;
 import com.banking.repository.AccountRepository;
 import com.banking.repository.TransactionRepository;
+import com.banking.service.fraud.FraudRuleEngine;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
 
 @Service
 public class TransactionService {
     
+    private static final int MAX_HISTORY_PAGE = 200;
+    
+    private static final int DEFAULT_HIGH_VALUE_DAYS = 30;
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
     @Autowired
     private AccountRepository accountRepository;
     
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Autowired
+    private TransactionRetryPolicy retryPolicy;
+    
+    @Autowired
+    private AccountCache accountCache;
+    
+    @Autowired
+    private MiniStatementCache miniStatements;
+    
+    @Autowired
+    private VelocityCounters velocityCounters;
+    
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate postingTransaction;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    private boolean updateReturning;
+    
+    @PostConstruct
+    void init() {
+        postingTransaction = new TransactionTemplate(transactionManager);
+        postingTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        
+        try (Connection connection = dataSource.getConnection()) {
+            updateReturning = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            updateReturning = false;
+        }
+    }
+    
     public UUID deposit(TransactionRequest request) {
+        return inPostingTransaction("deposit", () -> doDeposit(request));
+    }
+    
+    public UUID withdraw(TransactionRequest request) {
+        return inPostingTransaction("withdraw", () -> doWithdraw(request));
+    }
+    
+    public UUID transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, String description) {
+        return inPostingTransaction("transfer", () -> doTransfer(fromAccountId, toAccountId, amount, description));
+    }
+    
+    public List<BatchTransferResult> batchTransfer(List<TransactionRequest> transfers) {
+        return inPostingTransaction("batch", () -> doBatchTransfer(transfers));
+    }
+    
+    // Each posting runs in its own READ COMMITTED transaction, and the whole transaction is
+    // re-run when the database reports a serialization failure or deadlock
+    private <T> T inPostingTransaction(String operation, Supplier<T> posting) {
+        return retryPolicy.execute(operation, () -> postingTransaction.execute(status -> posting.get()));
+    }
+    
+    private UUID doDeposit(TransactionRequest request) {
         try {
-            Account account = accountRepository.findById(request.getAccountId())
-                    .orElseThrow(() -> new RuntimeException("Account not found"));
-
-            if (Boolean.FALSE.equals(account.getIsActive())) {
-                throw new RuntimeException("Account is inactive");
-            }
-
             BigDecimal amount = request.getAmount();
             if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
                 throw new RuntimeException("Amount must be positive");
             }
 
-            BigDecimal newBalance = account.getBalance().add(amount);
-            account.setBalance(newBalance);
+            BigDecimal newBalance = credit(request.getAccountId(), amount)
+                    .orElseThrow(() -> rejectedPosting(request.getAccountId(), "Account not found"));
+            accountCache.updateAfterCommit(request.getAccountId(), newBalance);
 
             Transaction txn = new Transaction();
-            txn.setAccount(account);
+            txn.setAccount(accountRepository.getReferenceById(request.getAccountId()));
             txn.setType(TransactionType.DEPOSIT);
             txn.setAmount(amount);
             txn.setDescription(request.getDescription() != null ? request.getDescription() : "Cash Deposit");
             txn.setBalanceAfter(newBalance);
             txn.setStatus(TransactionStatus.COMPLETED);
 
-            accountRepository.save(account);
             transactionRepository.save(txn);
+            miniStatements.appendAfterCommit(List.of(txn));
+            velocityCounters.recordAfterCommit(List.of(txn));
+            fraudRuleEngine.submitAfterCommit(List.of(txn));
 
             return txn.getTxnId();
         } catch (Exception e) {
-            throw new RuntimeException("Deposit failed: " + e.getMessage());
+            throw new RuntimeException("Deposit failed: " + e.getMessage(), e);
         }
     }
     
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public UUID withdraw(TransactionRequest request) {
+    private UUID doWithdraw(TransactionRequest request) {
         try {
-            Account account = accountRepository.findById(request.getAccountId())
-                    .orElseThrow(() -> new RuntimeException("Account not found"));
-
-            if (Boolean.FALSE.equals(account.getIsActive())) {
-                throw new RuntimeException("Account is inactive");
-            }
-
             BigDecimal amount = request.getAmount();
             if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
                 throw new RuntimeException("Amount must be positive");
             }
 
-            if (account.getBalance().compareTo(amount) < 0) {
-                throw new RuntimeException("Insufficient balance");
-            }
-
-            BigDecimal newBalance = account.getBalance().subtract(amount);
-            account.setBalance(newBalance);
+            BigDecimal newBalance = debit(request.getAccountId(), amount)
+                    .orElseThrow(() -> rejectedPosting(request.getAccountId(), "Insufficient balance"));
+            accountCache.updateAfterCommit(request.getAccountId(), newBalance);
 
             Transaction txn = new Transaction();
-            txn.setAccount(account);
+            txn.setAccount(accountRepository.getReferenceById(request.getAccountId()));
             txn.setType(TransactionType.WITHDRAW);
             txn.setAmount(amount.negate());
             txn.setDescription(request.getDescription() != null ? request.getDescription() : "Cash Withdrawal");
             txn.setBalanceAfter(newBalance);
             txn.setStatus(TransactionStatus.COMPLETED);
 
-            accountRepository.save(account);
             transactionRepository.save(txn);
+            miniStatements.appendAfterCommit(List.of(txn));
+            velocityCounters.recordAfterCommit(List.of(txn));
+            fraudRuleEngine.submitAfterCommit(List.of(txn));
 
             return txn.getTxnId();
         } catch (Exception e) {
-            throw new RuntimeException("Withdrawal failed: " + e.getMessage());
+            throw new RuntimeException("Withdrawal failed: " + e.getMessage(), e);
         }
     }
     
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public UUID transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, String description) {
+    // Single-account postings change the balance with one conditional UPDATE instead of
+    // loading and locking the Account entity. PostgreSQL hands the new balance back via
+    // RETURNING; other databases read it back inside the same transaction.
+    private Optional<BigDecimal> debit(UUID accountId, BigDecimal amount) {
+        if (updateReturning) {
+            return accountRepository.debitReturningBalance(accountId, amount);
+        }
+        if (accountRepository.debitIfSufficient(accountId, amount) == 0) {
+            return Optional.empty();
+        }
+        return accountRepository.findBalanceById(accountId);
+    }
+    
+    private Optional<BigDecimal> credit(UUID accountId, BigDecimal amount) {
+        if (updateReturning) {
+            return accountRepository.creditReturningBalance(accountId, amount);
+        }
+        if (accountRepository.creditIfActive(accountId, amount) == 0) {
+            return Optional.empty();
+        }
+        return accountRepository.findBalanceById(accountId);
+    }
+    
+    // Only reached when the conditional UPDATE matched no row, to say why
+    private RuntimeException rejectedPosting(UUID accountId, String otherwise) {
+        return accountRepository.findById(accountId)
+                .map(account -> Boolean.FALSE.equals(account.getIsActive())
+                        ? new RuntimeException("Account is inactive")
+                        : new RuntimeException(otherwise))
+                .orElseGet(() -> new RuntimeException("Account not found"));
+    }
+    
+    private UUID doTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, String description) {
         try {
-            if (fromAccountId.equals(toAccountId)) {
-                throw new RuntimeException("Source and destination accounts must be different");
-            }
+            Map<UUID, Account> locked = lockAccounts(List.of(fromAccountId, toAccountId));
+            List<Transaction> postings = postTransfer(locked, fromAccountId, toAccountId, amount, description);
 
-            Account fromAccount = accountRepository.findById(fromAccountId)
-                    .orElseThrow(() -> new RuntimeException("Source account not found"));
-            Account toAccount = accountRepository.findById(toAccountId)
-                    .orElseThrow(() -> new RuntimeException("Destination account not found"));
+            transactionRepository.saveAll(postings);
+            updateCachedBalances(locked);
+            miniStatements.appendAfterCommit(postings);
+            velocityCounters.recordAfterCommit(postings);
+            fraudRuleEngine.submitAfterCommit(postings);
 
-            if (Boolean.FALSE.equals(fromAccount.getIsActive()) || Boolean.FALSE.equals(toAccount.getIsActive())) {
-                throw new RuntimeException("One of the accounts is inactive");
+            return postings.get(0).getTxnId();
+        } catch (Exception e) {
+            throw new RuntimeException("Transfer failed: " + e.getMessage(), e);
+        }
+    }
+    
+    private List<BatchTransferResult> doBatchTransfer(List<TransactionRequest> transfers) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (TransactionRequest transfer : transfers) {
+            if (transfer != null) {
+                accountIds.add(transfer.getAccountId());
+                accountIds.add(transfer.getToAccountId());
             }
+        }
+        accountIds.remove(null);
 
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new RuntimeException("Amount must be positive");
+        // Every account in the batch is locked once, up front; items are then applied in order
+        Map<UUID, Account> locked = lockAccounts(accountIds);
+
+        List<Transaction> postings = new ArrayList<>();
+        List<Transaction> debits = new ArrayList<>();
+        List<BatchTransferResult> results = new ArrayList<>();
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransactionRequest transfer = transfers.get(i);
+            try {
+                // A null element in the request body fails as an item, like any other bad item
+                if (transfer == null) {
+                    throw new RuntimeException("Transfer is required");
+                }
+                if (transfer.getToAccountId() == null) {
+                    throw new RuntimeException("Destination account ID is required for transfer");
+                }
+                List<Transaction> itemPostings = postTransfer(locked, transfer.getAccountId(),
+                        transfer.getToAccountId(), transfer.getAmount(), transfer.getDescription());
+                postings.addAll(itemPostings);
+                debits.add(itemPostings.get(0));
+                results.add(new BatchTransferResult(i, transfer, null));
+            } catch (RuntimeException e) {
+                debits.add(null);
+                results.add(new BatchTransferResult(i, transfer, e.getMessage()));
             }
+        }
 
-            if (fromAccount.getBalance().compareTo(amount) < 0) {
-                throw new RuntimeException("Insufficient balance in source account");
+        // One saveAll so Hibernate can group the inserts into JDBC batches at flush
+        transactionRepository.saveAll(postings);
+        updateCachedBalances(locked);
+        miniStatements.appendAfterCommit(postings);
+        velocityCounters.recordAfterCommit(postings);
+        fraudRuleEngine.submitAfterCommit(postings);
+
+        for (int i = 0; i < results.size(); i++) {
+            if (debits.get(i) != null) {
+                results.get(i).setTransactionId(debits.get(i).getTxnId());
             }
+        }
+        return results;
+    }
+    
+    // Balances of locked accounts are final for this transaction and become visible at commit
+    private void updateCachedBalances(Map<UUID, Account> locked) {
+        for (Account account : locked.values()) {
+            accountCache.updateAfterCommit(account.getAccountId(), account.getBalance());
+        }
+    }
+    
+    // Validates a transfer against already-locked accounts and applies it to their balances.
+    // Returns the debit and credit postings, in that order, unsaved.
+    private List<Transaction> postTransfer(Map<UUID, Account> locked, UUID fromAccountId, UUID toAccountId,
+                                           BigDecimal amount, String description) {
+        if (fromAccountId == null || fromAccountId.equals(toAccountId)) {
+            throw new RuntimeException("Source and destination accounts must be different");
+        }
 
-            BigDecimal fromNewBalance = fromAccount.getBalance().subtract(amount);
-            BigDecimal toNewBalance = toAccount.getBalance().add(amount);
-
-            fromAccount.setBalance(fromNewBalance);
-            toAccount.setBalance(toNewBalance);
-
-            String txnDescription = description != null ? description : "Money Transfer";
-
-            // Outgoing transaction
-            Transaction debitTxn = new Transaction();
-            debitTxn.setAccount(fromAccount);
-            debitTxn.setToAccount(toAccount);
-            debitTxn.setType(TransactionType.TRANSFER);
-            debitTxn.setAmount(amount.negate());
-            debitTxn.setDescription(txnDescription + " - To " + toAccount.getAccountNumber());
-            debitTxn.setBalanceAfter(fromNewBalance);
-            debitTxn.setStatus(TransactionStatus.COMPLETED);
-
-            // Incoming transaction
-            Transaction creditTxn = new Transaction();
-            creditTxn.setAccount(toAccount);
-            creditTxn.setToAccount(fromAccount);
-            creditTxn.setType(TransactionType.TRANSFER);
-            creditTxn.setAmount(amount);
-            creditTxn.setDescription(txnDescription + " - From " + fromAccount.getAccountNumber());
-            creditTxn.setBalanceAfter(toNewBalance);
-            creditTxn.setStatus(TransactionStatus.COMPLETED);
-
-            accountRepository.save(fromAccount);
-            accountRepository.save(toAccount);
-            transactionRepository.save(debitTxn);
-            transactionRepository.save(creditTxn);
-
-            return debitTxn.getTxnId();
-        } catch (Exception e) {
-            throw new RuntimeException("Transfer failed: " + e.getMessage());
+        Account fromAccount = locked.get(fromAccountId);
+        Account toAccount = locked.get(toAccountId);
+        if (fromAccount == null) {
+            throw new RuntimeException("Source account not found");
+        }
+        if (toAccount == null) {
+            throw new RuntimeException("Destination account not found");
         }
+
+        if (Boolean.FALSE.equals(fromAccount.getIsActive()) || Boolean.FALSE.equals(toAccount.getIsActive())) {
+            throw new RuntimeException("One of the accounts is inactive");
+        }
+
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+
+        if (fromAccount.getBalance().compareTo(amount) < 0) {
+            throw new RuntimeException("Insufficient balance in source account");
+        }
+
+        BigDecimal fromNewBalance = fromAccount.getBalance().subtract(amount);
+        BigDecimal toNewBalance = toAccount.getBalance().add(amount);
+
+        fromAccount.setBalance(fromNewBalance);
+        toAccount.setBalance(toNewBalance);
+
+        String txnDescription = description != null ? description : "Money Transfer";
+
+        // Outgoing transaction
+        Transaction debitTxn = new Transaction();
+        debitTxn.setAccount(fromAccount);
+        debitTxn.setToAccount(toAccount);
+        debitTxn.setType(TransactionType.TRANSFER);
+        debitTxn.setAmount(amount.negate());
+        debitTxn.setDescription(txnDescription + " - To " + toAccount.getAccountNumber());
+        debitTxn.setBalanceAfter(fromNewBalance);
+        debitTxn.setStatus(TransactionStatus.COMPLETED);
+
+        // Incoming transaction
+        Transaction creditTxn = new Transaction();
+        creditTxn.setAccount(toAccount);
+        creditTxn.setToAccount(fromAccount);
+        creditTxn.setType(TransactionType.TRANSFER);
+        creditTxn.setAmount(amount);
+        creditTxn.setDescription(txnDescription + " - From " + fromAccount.getAccountNumber());
+        creditTxn.setBalanceAfter(toNewBalance);
+        creditTxn.setStatus(TransactionStatus.COMPLETED);
+
+        return List.of(debitTxn, creditTxn);
     }
     
-    @Transactional(readOnly = true)
+    // Row locks are taken in a single SELECT ... ORDER BY account_id FOR UPDATE, so every
+    // posting acquires them in the same order and two postings touching the same accounts
+    // queue behind each other instead of deadlocking.
+    private Map<UUID, Account> lockAccounts(Collection<UUID> accountIds) {
+        Map<UUID, Account> locked = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return locked;
+        }
+        for (Account account : accountRepository.findAllByIdForUpdate(accountIds)) {
+            locked.put(account.getAccountId(), account);
+        }
+        return locked;
+    }
+    
+    // Rows keep the column order of the get_mini_statement function this replaced:
+    // txn_id, type, amount, balance_after, description, created_at
     public List<Object[]> getMiniStatement(UUID accountId) {
-        return transactionRepository.getMiniStatement(accountId);
+        List<Object[]> statement = new ArrayList<>();
+        for (TransactionLine line : miniStatements.get(accountId)) {
+            statement.add(new Object[] {line.getTxnId(), line.getType(), line.getAmount(), line.getBalanceAfter(),
+                    line.getDescription(), line.getCreatedAt()});
+        }
+        return statement;
     }
     
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionHistory(UUID accountId) {
-        return transactionRepository.findRecentTransactionsByAccountId(accountId);
+    public CursorPage<TransactionLine> getTransactionHistory(UUID accountId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_HISTORY_PAGE);
+        }
+        
+        // Fetch one extra row to learn whether another page exists
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<TransactionLine> rows;
+        if (cursor == null) {
+            rows = transactionRepository.findHistoryFirstPage(accountId, page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = transactionRepository.findHistoryPageAfter(accountId, after.getCreatedAt(), after.getId(), page);
+        }
+        
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TransactionLine> items = rows.subList(0, limit);
+        TransactionLine last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.getCreatedAt(), last.getTxnId()).encode());
     }
     
+    // Bounded by date and page size so a low threshold cannot turn into a full table read
     @Transactional(readOnly = true)
-    public List<Transaction> getHighValueTransactions(BigDecimal threshold) {
-        return transactionRepository.findHighValueTransactions(threshold);
+    public Slice<HighValueTransaction> getHighValueTransactions(BigDecimal threshold, LocalDate from, LocalDate to,
+                                                                int page, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE) {
+            throw new RuntimeException("size must be between 1 and " + MAX_HISTORY_PAGE);
+        }
+        if (page < 0) {
+            throw new RuntimeException("page must not be negative");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_HIGH_VALUE_DAYS);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        return transactionRepository.findHighValueTransactions(threshold, start.atStartOfDay(),
+                end.plusDays(1).atStartOfDay(), PageRequest.of(page, size));
     }
     
-    @Transactional(readOnly = true)
+    // Served from the in-memory velocity window; only spans longer than it go to the database
     public Long getRecentTransactionCount(UUID accountId, int hours) {
+        if (velocityCounters.covers(hours)) {
+            return velocityCounters.recent(accountId, hours).getCount();
+        }
         java.time.LocalDateTime since = java.time.LocalDateTime.now().minusHours(hours);
         return transactionRepository.countRecentTransactionsByAccount(accountId, since);
     }
+    
+    public RecentActivity getRecentActivity(UUID accountId, int hours) {
+        return velocityCounters.recent(accountId, hours);
+    }
 }
@@ -4,9 +4,12 @@ import com.banking.dto.RegisterRequest;
 import com.banking.model.User;
 import com.banking.model.UserRole;
 import com.banking.repository.UserRepository;
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -23,6 +26,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
     public User registerUser(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
@@ -50,6 +56,16 @@ public class UserService {
         return userRepository.findByUsernameAndIsActive(username, true);
     }
     
+    // The filter has already loaded the caller, so controllers take a reference instead of
+    // selecting the row again; only the id is read until something touches another field
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public User getReference(AuthenticatedUser principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
+        return userRepository.getReferenceById(principal.getUserId());
+    }
+    
     public Optional<User> findById(UUID userId) {
         return userRepository.findById(userId);
     }
@@ -74,6 +90,7 @@ public class UserService {
         
         user.setIsActive(false);
         userRepository.save(user);
+        tokenRevocationList.revokeAfterCommit(userId);
     }
     
     public boolean validatePassword(String rawPassword, String encodedPassword) {
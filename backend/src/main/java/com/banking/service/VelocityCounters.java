@@ -0,0 +1,296 @@
+package com.banking.service;
+
+import com.banking.dto.PostingActivity;
+import com.banking.dto.RecentActivity;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Per-account posting count and volume over the last banking.velocity.window-hours, in one-minute
+// buckets. Rebuilt from the transactions table at startup, added to by postings after they commit,
+// and hydrated on first use for accounts the rebuild did not keep. Answers are at minute granularity:
+// "the last N hours" starts at the beginning of the minute N hours ago.
+@Service
+public class VelocityCounters {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banking.velocity.window-hours:24}")
+    private int windowHours;
+
+    @Value("${banking.velocity.max-accounts:10000}")
+    private int maxAccounts;
+
+    // Loads read the primary, so a window never starts behind postings already added
+    private TransactionTemplate primaryRead;
+
+    // Guarded by this
+    private Map<UUID, Window> windows;
+
+    // Commits per stripe of accounts, so a load that overlaps one is served but not kept
+    // (guarded by this)
+    private final StripeSequences sequences = new StripeSequences();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Window> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+        hits = meterRegistry.counter("banking.velocity.requests", "result", "hit");
+        misses = meterRegistry.counter("banking.velocity.requests", "result", "miss");
+        meterRegistry.gauge("banking.velocity.accounts", this, counters -> counters.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long sequence = commitSequence();
+        int oldest = oldestMinute();
+        Map<UUID, Window> loaded = new HashMap<>();
+        primaryRead.executeWithoutResult(status -> {
+            try (Stream<PostingActivity> rows = transactionRepository.streamActivitySince(startOf(oldest))) {
+                rows.forEach(row -> loaded.computeIfAbsent(row.getAccountId(), id -> new Window(windowMinutes()))
+                        .add(minuteOf(row.getCreatedAt()), cents(row.getAmount()), oldest));
+            }
+        });
+
+        synchronized (this) {
+            loaded.forEach((accountId, window) -> {
+                if (sequences.unchangedSince(accountId, sequence)) {
+                    windows.putIfAbsent(accountId, window);
+                }
+            });
+        }
+    }
+
+    public boolean covers(int hours) {
+        return hours >= 1 && hours <= windowHours;
+    }
+
+    // Count and absolute volume of completed postings in the last hours, O(buckets)
+    public RecentActivity recent(UUID accountId, int hours) {
+        if (!covers(hours)) {
+            throw new RuntimeException("hours must be between 1 and " + windowHours);
+        }
+        return window(accountId).since(minuteOf(LocalDateTime.now().minusHours(hours)));
+    }
+
+    // Called by postings with their (saved) Transaction rows; applied once the posting commits
+    public void recordAfterCommit(List<Transaction> postings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(postings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(postings);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return windows.size();
+    }
+
+    private void record(List<Transaction> postings) {
+        int oldest = oldestMinute();
+        for (Transaction posting : postings) {
+            if (posting.getStatus() != TransactionStatus.COMPLETED) {
+                continue;
+            }
+            UUID accountId = posting.getAccount().getAccountId();
+            Window window;
+            synchronized (this) {
+                sequences.record(accountId);
+                // Not tracked (or evicted): the next read loads it with this posting included
+                window = windows.get(accountId);
+            }
+            if (window != null) {
+                window.add(minuteOf(posting.getCreatedAt()), cents(posting.getAmount().abs()), oldest);
+            }
+        }
+    }
+
+    private Window window(UUID accountId) {
+        long sequence;
+        synchronized (this) {
+            Window window = windows.get(accountId);
+            if (window != null) {
+                hits.increment();
+                return window;
+            }
+            sequence = sequences.snapshot();
+        }
+        misses.increment();
+
+        int oldest = oldestMinute();
+        List<PostingActivity> rows = primaryRead.execute(status ->
+                transactionRepository.findActivitySince(accountId, startOf(oldest)));
+        Window window = new Window(windowMinutes());
+        for (PostingActivity row : rows) {
+            window.add(minuteOf(row.getCreatedAt()), cents(row.getAmount()), oldest);
+        }
+
+        synchronized (this) {
+            if (sequences.unchangedSince(accountId, sequence)) {
+                windows.putIfAbsent(accountId, window);
+            }
+        }
+        return window;
+    }
+
+    private synchronized long commitSequence() {
+        return sequences.snapshot();
+    }
+
+    private int windowMinutes() {
+        return windowHours * 60;
+    }
+
+    private int oldestMinute() {
+        return minuteOf(LocalDateTime.now()) - windowMinutes() + 1;
+    }
+
+    private static int minuteOf(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static LocalDateTime startOf(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    // Amounts are NUMERIC(15,2), so minor units always fit a long
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    // Non-empty minutes only, oldest to newest, in a circular buffer that grows on demand. A bucket
+    // is 16 bytes and there is at most one per minute of the window, which caps an account at
+    // window-hours * 60 buckets (about 23 KB for 24 hours) however busy it is.
+    private static final class Window {
+        private final int maxBuckets;
+        private int[] minutes = new int[4];
+        private int[] counts = new int[4];
+        private long[] cents = new long[4];
+        private int head;
+        private int size;
+
+        Window(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        synchronized void add(int minute, long amount, int oldestMinute) {
+            expire(oldestMinute);
+            if (minute < oldestMinute) {
+                return;
+            }
+
+            // Postings almost always arrive in minute order; walk back for the rare one that does not
+            int position = size;
+            while (position > 0 && minutes[slot(position - 1)] > minute) {
+                position--;
+            }
+            if (position > 0 && minutes[slot(position - 1)] == minute) {
+                counts[slot(position - 1)]++;
+                cents[slot(position - 1)] += amount;
+                return;
+            }
+
+            if (size == minutes.length) {
+                if (size == maxBuckets) {
+                    // Only possible with a clock step backwards; keep the newest minutes
+                    if (position == 0) {
+                        return;
+                    }
+                    head = slot(1);
+                    size--;
+                    position--;
+                } else {
+                    grow();
+                }
+            }
+            for (int i = size; i > position; i--) {
+                minutes[slot(i)] = minutes[slot(i - 1)];
+                counts[slot(i)] = counts[slot(i - 1)];
+                cents[slot(i)] = cents[slot(i - 1)];
+            }
+            minutes[slot(position)] = minute;
+            counts[slot(position)] = 1;
+            cents[slot(position)] = amount;
+            size++;
+        }
+
+        synchronized RecentActivity since(int fromMinute) {
+            long count = 0;
+            long amount = 0;
+            for (int i = size - 1; i >= 0 && minutes[slot(i)] >= fromMinute; i--) {
+                count += counts[slot(i)];
+                amount += cents[slot(i)];
+            }
+            return new RecentActivity(count, BigDecimal.valueOf(amount, 2));
+        }
+
+        private void expire(int oldestMinute) {
+            while (size > 0 && minutes[head] < oldestMinute) {
+                head = slot(1);
+                size--;
+            }
+        }
+
+        private void grow() {
+            int capacity = Math.min(minutes.length * 2, maxBuckets);
+            int[] newMinutes = new int[capacity];
+            int[] newCounts = new int[capacity];
+            long[] newCents = new long[capacity];
+            for (int i = 0; i < size; i++) {
+                newMinutes[i] = minutes[slot(i)];
+                newCounts[i] = counts[slot(i)];
+                newCents[i] = cents[slot(i)];
+            }
+            minutes = newMinutes;
+            counts = newCounts;
+            cents = newCents;
+            head = 0;
+        }
+
+        private int slot(int index) {
+            return (head + index) % minutes.length;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Any single posting, in or out, of at least banking.fraud.amount.threshold
+@Component
+public class AmountThresholdRule implements FraudRule {
+
+    @Value("${banking.fraud.amount.threshold:10000}")
+    private BigDecimal threshold;
+
+    @Override
+    public String name() {
+        return "LARGE_AMOUNT";
+    }
+
+    @Override
+    public String evaluate(PostingEvent posting, FraudContext context) {
+        if (posting.getAmount().abs().compareTo(threshold) < 0) {
+            return null;
+        }
+        return "Posting of " + posting.getAmount().toPlainString() + " is at or above the "
+                + threshold.toPlainString() + " threshold";
+    }
+}
@@ -0,0 +1,95 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+// What the rules can look back on: each account's postings over the last historyMinutes (measured
+// from the newest posting seen, so a replay of old postings behaves like live traffic) and when it
+// first paid each counterparty. Not thread-safe; the live engine's context is only touched by its
+// worker, and every replay builds its own.
+//
+// VelocityCounters already counts postings per account, but it cannot stand in for this history:
+// it keeps per-minute counts and volumes rather than the postings themselves, which ROUND_AMOUNTS
+// and NEW_PAYEE_BURST need (sign, amount, counterparty), and it measures its window from the wall
+// clock, where a replay has to measure from the postings it is replaying.
+public class FraudContext {
+
+    private static final int MAX_PAYEES_PER_ACCOUNT = 256;
+
+    private final int historyMinutes;
+
+    private final int maxPostingsPerAccount;
+
+    private final BiFunction<UUID, UUID, LocalDateTime> firstPaymentLoader;
+
+    // Least recently posted-to accounts are dropped past maxAccounts
+    private final Map<UUID, AccountHistory> accounts;
+
+    public FraudContext(int historyMinutes, int maxPostingsPerAccount, int maxAccounts,
+                        BiFunction<UUID, UUID, LocalDateTime> firstPaymentLoader) {
+        this.historyMinutes = historyMinutes;
+        this.maxPostingsPerAccount = maxPostingsPerAccount;
+        this.firstPaymentLoader = firstPaymentLoader;
+        this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, AccountHistory> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+    }
+
+    public int getHistoryMinutes() {
+        return historyMinutes;
+    }
+
+    // The account's earlier postings, oldest first. Rules with a shorter window than the history
+    // skip the older ones themselves.
+    public Collection<PostingEvent> history(UUID accountId) {
+        AccountHistory history = accounts.get(accountId);
+        return history != null ? Collections.unmodifiableCollection(history.postings) : Collections.emptyList();
+    }
+
+    // When the account first paid the counterparty, or null if it never has. The transactions
+    // table is the source, so this is right for payments made before the context started.
+    public LocalDateTime firstPaymentTo(UUID accountId, UUID payeeId) {
+        AccountHistory history = accounts.computeIfAbsent(accountId, id -> new AccountHistory());
+        LocalDateTime first = history.firstPayments.get(payeeId);
+        if (first == null) {
+            first = firstPaymentLoader.apply(accountId, payeeId);
+            if (first != null) {
+                history.firstPayments.put(payeeId, first);
+            }
+        }
+        return first;
+    }
+
+    void add(PostingEvent posting) {
+        AccountHistory history = accounts.computeIfAbsent(posting.getAccountId(), id -> new AccountHistory());
+        LocalDateTime oldest = posting.getCreatedAt().minusMinutes(historyMinutes);
+        while (!history.postings.isEmpty() && (history.postings.peekFirst().getCreatedAt().isBefore(oldest)
+                || history.postings.size() >= maxPostingsPerAccount)) {
+            history.postings.pollFirst();
+        }
+        history.postings.addLast(posting);
+    }
+
+    private static final class AccountHistory {
+        private final Deque<PostingEvent> postings = new ArrayDeque<>();
+
+        private final Map<UUID, LocalDateTime> firstPayments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, LocalDateTime> eldest) {
+                return size() > MAX_PAYEES_PER_ACCOUNT;
+            }
+        };
+    }
+}
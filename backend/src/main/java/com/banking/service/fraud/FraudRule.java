@@ -0,0 +1,16 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+
+// A check run on every committed posting. Rules are Spring beans, picked up by FraudRuleEngine
+// without further wiring; they keep no state of their own and read the account's recent postings
+// from the context, so the same rule serves live postings and replays.
+public interface FraudRule {
+
+    // Alert type of the rule's alerts and the rule tag of its metrics (at most 50 characters)
+    String name();
+
+    // The alert message, or null when the posting passes. The context does not yet include the
+    // posting itself.
+    String evaluate(PostingEvent posting, FraudContext context);
+}
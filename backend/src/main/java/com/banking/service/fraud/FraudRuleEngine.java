@@ -0,0 +1,316 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.FraudFinding;
+import com.banking.dto.FraudReplayReport;
+import com.banking.dto.PostingEvent;
+import com.banking.model.Alert;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AlertService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Runs every FraudRule over each committed posting and saves what they find as Alert rows. Postings
+// are queued after commit and evaluated by one worker thread, so a request only pays for the
+// enqueue; when the queue (banking.fraud.queue-capacity) is full, postings are dropped and counted
+// rather than making requests wait. The worker takes up to banking.fraud.batch-size postings at a
+// time and saves their alerts in one transaction. It starts once the application is ready, by
+// loading the last banking.fraud.history-minutes of postings from the table, so the windowed rules
+// are not blind for that long after a restart.
+@Service
+public class FraudRuleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudRuleEngine.class);
+
+    private static final int MAX_REPLAY_FINDINGS = 500;
+
+    @Autowired
+    private List<FraudRule> rules;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banking.fraud.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.fraud.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${banking.fraud.batch-size:100}")
+    private int batchSize;
+
+    // How far back the rules can look; rule windows longer than this see only this much
+    @Value("${banking.fraud.history-minutes:60}")
+    private int historyMinutes;
+
+    @Value("${banking.fraud.max-postings-per-account:1000}")
+    private int maxPostingsPerAccount;
+
+    @Value("${banking.fraud.max-accounts:10000}")
+    private int maxAccounts;
+
+    private BlockingQueue<PostingEvent> queue;
+
+    // Only touched by the worker
+    private FraudContext live;
+
+    // Postings created before this are seeded into live from the table; this instance's later ones
+    // reach it through the queue, which is open from then on
+    private LocalDateTime seededUntil;
+
+    // First-payment lookups and the startup seed read the primary, which already has every
+    // committed posting
+    private TransactionTemplate primaryRead;
+
+    private TransactionTemplate alertTransaction;
+
+    private TransactionTemplate replayRead;
+
+    private Timer[] ruleTimers;
+    private final Map<String, Counter> ruleAlerts = new HashMap<>();
+    private Counter dropped;
+    private Counter failures;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        alertTransaction = new TransactionTemplate(transactionManager);
+        replayRead = new TransactionTemplate(transactionManager);
+        replayRead.setReadOnly(true);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        seededUntil = LocalDateTime.now();
+        live = newContext((accountId, payeeId) ->
+                primaryRead.execute(status -> transactionRepository.findFirstPaymentTo(accountId, payeeId)));
+
+        ruleTimers = new Timer[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            ruleTimers[i] = meterRegistry.timer("banking.fraud.rule.latency", "rule", rules.get(i).name());
+            ruleAlerts.put(rules.get(i).name(), meterRegistry.counter("banking.fraud.alerts", "rule", rules.get(i).name()));
+        }
+        dropped = meterRegistry.counter("banking.fraud.dropped");
+        failures = meterRegistry.counter("banking.fraud.failures");
+        meterRegistry.gauge("banking.fraud.queue", this, engine -> engine.queue.size());
+    }
+
+    // Until the worker starts, committed postings wait in the queue
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && worker == null) {
+            running = true;
+            worker = new Thread(this::work, "fraud-rules");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    // Postings already queued are evaluated before the worker stops
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Called by postings with their (saved) Transaction rows; queued once the posting commits
+    public void submitAfterCommit(List<Transaction> postings) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(postings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(postings);
+            }
+        });
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    // Runs the rules over the completed postings in [from, to), in posting order and with a context
+    // of their own, and reports what they would have raised. Nothing is saved, so thresholds can be
+    // tried against history before they go live. The context is seeded with the history-minutes
+    // before from, as the live one is at startup.
+    public FraudReplayReport replay(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("from must be before to");
+        }
+        FraudReplayReport report = new FraudReplayReport(from, to);
+        FraudContext context = newContext(transactionRepository::findFirstPaymentTo);
+        seed(context, from, replayRead);
+        long[] nanos = new long[rules.size()];
+        long[] totalNanos = new long[rules.size()];
+
+        replayRead.executeWithoutResult(status -> {
+            try (Stream<PostingEvent> postings = transactionRepository.streamPostingEventsBetween(from, to)) {
+                postings.forEach(posting -> {
+                    evaluate(posting, context, nanos, finding -> report.add(finding, MAX_REPLAY_FINDINGS));
+                    for (int i = 0; i < nanos.length; i++) {
+                        totalNanos[i] += nanos[i];
+                    }
+                    report.setPostings(report.getPostings() + 1);
+                });
+            }
+        });
+
+        for (int i = 0; i < rules.size(); i++) {
+            double mean = report.getPostings() == 0 ? 0 : totalNanos[i] / 1000.0 / report.getPostings();
+            report.getMeanMicrosByRule().put(rules.get(i).name(), mean);
+        }
+        return report;
+    }
+
+    private FraudContext newContext(BiFunction<UUID, UUID, LocalDateTime> firstPaymentLoader) {
+        return new FraudContext(historyMinutes, maxPostingsPerAccount, maxAccounts, firstPaymentLoader);
+    }
+
+    // Adds the postings of the history-minutes before until to the context without evaluating them
+    private void seed(FraudContext context, LocalDateTime until, TransactionTemplate read) {
+        read.executeWithoutResult(status -> {
+            try (Stream<PostingEvent> postings =
+                         transactionRepository.streamPostingEventsBetween(until.minusMinutes(historyMinutes), until)) {
+                postings.forEach(context::add);
+            }
+        });
+    }
+
+    private void submit(List<Transaction> postings) {
+        for (Transaction posting : postings) {
+            if (posting.getStatus() != TransactionStatus.COMPLETED) {
+                continue;
+            }
+            PostingEvent event = new PostingEvent(posting.getTxnId(), posting.getAccount().getAccountId(),
+                    posting.getToAccount() != null ? posting.getToAccount().getAccountId() : null,
+                    posting.getType(), posting.getAmount(), posting.getCreatedAt());
+            if (!queue.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            seed(live, seededUntil, primaryRead);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Could not load recent postings; fraud rules start without history", e);
+        }
+
+        List<PostingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PostingEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The batch's alerts are lost, not the worker
+                failures.increment();
+                log.error("Fraud rule batch of {} postings failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PostingEvent> batch) {
+        long[] nanos = new long[rules.size()];
+        List<FraudFinding> findings = new ArrayList<>();
+        for (PostingEvent posting : batch) {
+            evaluate(posting, live, nanos, findings::add);
+            for (int i = 0; i < nanos.length; i++) {
+                ruleTimers[i].record(nanos[i], TimeUnit.NANOSECONDS);
+            }
+        }
+        if (findings.isEmpty()) {
+            return;
+        }
+
+        alertTransaction.executeWithoutResult(status -> {
+            List<Alert> alerts = new ArrayList<>(findings.size());
+            for (FraudFinding finding : findings) {
+                alerts.add(new Alert(accountRepository.getReferenceById(finding.getAccountId()),
+                        transactionRepository.getReferenceById(finding.getTxnId()), finding.getMessage(), finding.getRule()));
+            }
+            alertService.raiseAlerts(alerts);
+        });
+        findings.forEach(finding -> ruleAlerts.get(finding.getRule()).increment());
+    }
+
+    // Every rule in turn, timing each into nanos; then the posting joins the context's history
+    private void evaluate(PostingEvent posting, FraudContext context, long[] nanos, Consumer<FraudFinding> findings) {
+        for (int i = 0; i < rules.size(); i++) {
+            FraudRule rule = rules.get(i);
+            long begin = System.nanoTime();
+            try {
+                String message = rule.evaluate(posting, context);
+                if (message != null) {
+                    findings.accept(new FraudFinding(rule.name(), posting, message));
+                }
+            } catch (RuntimeException e) {
+                // One failing rule does not keep the others from running
+                failures.increment();
+                log.warn("Fraud rule {} failed on posting {}", rule.name(), posting.getTxnId(), e);
+            }
+            nanos[i] = System.nanoTime() - begin;
+        }
+        context.add(posting);
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+// Outgoing transfers to banking.fraud.new-payee.payees different accounts within
+// banking.fraud.new-payee.minutes, each paid for the first time inside that window. Fires on the
+// transfer that reaches the count.
+@Component
+public class NewPayeeBurstRule implements FraudRule {
+
+    @Value("${banking.fraud.new-payee.minutes:30}")
+    private int minutes;
+
+    @Value("${banking.fraud.new-payee.payees:3}")
+    private int payees;
+
+    @Override
+    public String name() {
+        return "NEW_PAYEE_BURST";
+    }
+
+    @Override
+    public String evaluate(PostingEvent posting, FraudContext context) {
+        LocalDateTime since = posting.getCreatedAt().minusMinutes(minutes);
+        if (!isNewPayee(posting, since, context)) {
+            return null;
+        }
+        Set<UUID> newPayees = new HashSet<>();
+        for (PostingEvent earlier : context.history(posting.getAccountId())) {
+            if (!earlier.getCreatedAt().isBefore(since) && isNewPayee(earlier, since, context)) {
+                newPayees.add(earlier.getCounterpartyId());
+            }
+        }
+        if (newPayees.contains(posting.getCounterpartyId()) || newPayees.size() + 1 != payees) {
+            return null;
+        }
+        return payees + " new payees within " + minutes + " minutes";
+    }
+
+    private static boolean isNewPayee(PostingEvent posting, LocalDateTime since, FraudContext context) {
+        if (posting.getAmount().signum() >= 0 || posting.getCounterpartyId() == null) {
+            return false;
+        }
+        LocalDateTime first = context.firstPaymentTo(posting.getAccountId(), posting.getCounterpartyId());
+        return first == null || !first.isBefore(since);
+    }
+}
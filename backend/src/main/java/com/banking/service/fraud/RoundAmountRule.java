@@ -0,0 +1,51 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Repeated outgoing amounts that are exact multiples of banking.fraud.round-amount.unit:
+// banking.fraud.round-amount.count of them within banking.fraud.round-amount.minutes. Fires on the
+// posting that reaches the count.
+@Component
+public class RoundAmountRule implements FraudRule {
+
+    @Value("${banking.fraud.round-amount.unit:1000}")
+    private BigDecimal unit;
+
+    @Value("${banking.fraud.round-amount.minutes:60}")
+    private int minutes;
+
+    @Value("${banking.fraud.round-amount.count:3}")
+    private int count;
+
+    @Override
+    public String name() {
+        return "ROUND_AMOUNTS";
+    }
+
+    @Override
+    public String evaluate(PostingEvent posting, FraudContext context) {
+        if (!isRoundDebit(posting)) {
+            return null;
+        }
+        LocalDateTime since = posting.getCreatedAt().minusMinutes(minutes);
+        int rounds = 1;
+        for (PostingEvent earlier : context.history(posting.getAccountId())) {
+            if (!earlier.getCreatedAt().isBefore(since) && isRoundDebit(earlier)) {
+                rounds++;
+            }
+        }
+        if (rounds != count) {
+            return null;
+        }
+        return rounds + " outgoing multiples of " + unit.toPlainString() + " within " + minutes + " minutes";
+    }
+
+    private boolean isRoundDebit(PostingEvent posting) {
+        return posting.getAmount().signum() < 0 && posting.getAmount().remainder(unit).signum() == 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.service.fraud;
+
+import com.banking.dto.PostingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// banking.fraud.velocity.max-postings postings on one account within
+// banking.fraud.velocity.minutes. Fires on the posting that reaches the limit, not on every
+// posting after it.
+@Component
+public class VelocityRule implements FraudRule {
+
+    @Value("${banking.fraud.velocity.minutes:10}")
+    private int minutes;
+
+    @Value("${banking.fraud.velocity.max-postings:10}")
+    private int maxPostings;
+
+    @Override
+    public String name() {
+        return "HIGH_VELOCITY";
+    }
+
+    @Override
+    public String evaluate(PostingEvent posting, FraudContext context) {
+        LocalDateTime since = posting.getCreatedAt().minusMinutes(minutes);
+        int count = 1;
+        for (PostingEvent earlier : context.history(posting.getAccountId())) {
+            if (!earlier.getCreatedAt().isBefore(since)) {
+                count++;
+            }
+        }
+        if (count != maxPostings) {
+            return null;
+        }
+        return count + " postings within " + minutes + " minutes";
+    }
+}
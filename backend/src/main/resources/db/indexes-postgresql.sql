@@ -0,0 +1,19 @@
+-- Indexes JPA cannot declare, run as a migration (psql -f, or one instance started with
+-- --apply-schema-indexes) before instances that need them start. Safe to rerun: each is built
+-- CONCURRENTLY, so writes to the table carry on during the build, and skipped when it already
+-- exists. A build that fails part way leaves an INVALID index behind, which IF NOT EXISTS also
+-- skips and startup refuses; drop it and rerun.
+
+-- Alert queue: one per filter the admin queue pages by, covering only the unresolved rows so they
+-- stay as small as the backlog rather than the alert history
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_alerts_unresolved_created ON alerts (created_at DESC, alert_id DESC) WHERE is_resolved = false;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_alerts_unresolved_type ON alerts (alert_type, created_at DESC, alert_id DESC) WHERE is_resolved = false;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_alerts_unresolved_account ON alerts (account_id, created_at DESC, alert_id DESC) WHERE is_resolved = false;
+
+-- High-value scans: abs(amount) largest first, txn_id breaking ties, over completed postings only.
+-- An expression index rather than a stored column, so rows written outside JPA are covered without
+-- a backfill. INCLUDE carries every column the report selects or filters on, amount among them, so
+-- PostgreSQL answers a page from the index alone (an index-only scan) once the table is vacuumed.
+DROP INDEX CONCURRENTLY IF EXISTS idx_transactions_abs_amount_expr;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_high_value ON transactions ((abs(amount)) DESC, txn_id DESC)
+    INCLUDE (amount, created_at, account_id, type, balance_after, description, status) WHERE status = 'COMPLETED';
@@ -0,0 +1,8 @@
+-- The indexes of indexes-postgresql.sql for databases without partial or expression indexes (H2 in
+-- development and tests). The alert queue indexes lead with the predicate column instead; there is
+-- no stand-in for the high-value scan index, so those scans read the table here.
+
+-- Alert queue
+CREATE INDEX IF NOT EXISTS idx_alerts_unresolved_created ON alerts (is_resolved, created_at DESC, alert_id DESC);
+CREATE INDEX IF NOT EXISTS idx_alerts_unresolved_type ON alerts (is_resolved, alert_type, created_at DESC, alert_id DESC);
+CREATE INDEX IF NOT EXISTS idx_alerts_unresolved_account ON alerts (is_resolved, account_id, created_at DESC, alert_id DESC);
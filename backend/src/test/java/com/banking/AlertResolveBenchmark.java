@@ -0,0 +1,94 @@
+package com.banking;
+
+import com.banking.dto.AlertResolveRequest;
+import com.banking.dto.AlertResolveResult;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.AlertService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clears a backlog of 5000 alerts three ways: the old loop of AlertService.resolveAlert calls (a
+ * findById and an entity save per alert, one transaction each), the bulk API with the same ids, and
+ * the bulk API with a type and account filter. Each round gets a fresh backlog of its own type.
+ *
+ * Run with: mvn test -Dtest=AlertResolveBenchmark -Dbenchmark=true
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "banking.fraud.enabled=false"})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AlertResolveBenchmark {
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void resolvesFiveThousandAlerts() {
+        int alerts = Integer.getInteger("benchmark.alerts", 5000);
+        Branch branch = branchRepository.save(new Branch("RESOLVE", "Resolve Branch", "Resolve Region"));
+        User admin = new User("Resolve Admin", "resolve@test.com", "password", null);
+        admin.setRole(UserRole.ADMIN);
+        userRepository.save(admin);
+        Account account = accountRepository.save(new Account(admin, branch, "RESOLVE001"));
+
+        List<UUID> looped = raise(account, "LOOP", alerts);
+        long begin = System.nanoTime();
+        for (UUID alertId : looped) {
+            alertService.resolveAlert(alertId, admin);
+        }
+        double loopSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        List<UUID> listed = raise(account, "IDS", alerts);
+        begin = System.nanoTime();
+        AlertResolveResult byIds = alertService.resolveAlerts(new AlertResolveRequest(listed), admin);
+        double idsSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        raise(account, "FILTER", alerts);
+        AlertResolveRequest filter = new AlertResolveRequest();
+        filter.setAlertType("FILTER");
+        filter.setAccountId(account.getAccountId());
+        begin = System.nanoTime();
+        AlertResolveResult byFilter = alertService.resolveAlerts(filter, admin);
+        double filterSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        assertEquals(alerts, byIds.getResolved());
+        assertEquals(alerts, byFilter.getResolved());
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM alerts WHERE account_id = ? AND is_resolved = false", Long.class, account.getAccountId()));
+
+        System.out.printf("resolve benchmark: alerts=%d loop=%.2fs (%.0f/s) ids=%.2fs (%.0f/s, %d chunks) filter=%.2fs (%.0f/s, %d chunks)%n",
+                alerts, loopSeconds, alerts / loopSeconds, idsSeconds, alerts / idsSeconds, byIds.getChunks(),
+                filterSeconds, alerts / filterSeconds, byFilter.getChunks());
+    }
+
+    private List<UUID> raise(Account account, String type, int count) {
+        List<Alert> alerts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            alerts.add(new Alert(account, null, type + " review " + i, type));
+        }
+        return alertService.raiseAlerts(alerts).stream().map(Alert::getAlertId).toList();
+    }
+}
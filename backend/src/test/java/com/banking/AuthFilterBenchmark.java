@@ -0,0 +1,98 @@
+package com.banking;
+
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.JwtAuthenticationFilter;
+import com.banking.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests per second through JwtAuthenticationFilter with the principal loaded from the users
+ * table on every request versus rebuilt from the token's claims.
+ *
+ * Run with: mvn test -Dtest=AuthFilterBenchmark -Dbenchmark=true
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuthFilterBenchmark {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void databaseVersusStatelessAuthentication() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 50_000);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User("Auth User", "auth-" + suffix + "@test.com", "password", null));
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(user));
+
+        try {
+            for (boolean stateless : new boolean[] {false, true, false, true}) {
+                ReflectionTestUtils.setField(jwtAuthenticationFilter, "stateless", stateless);
+                run(stateless ? "stateless" : "database", token, requests);
+            }
+        } finally {
+            ReflectionTestUtils.setField(jwtAuthenticationFilter, "stateless", true);
+        }
+    }
+
+    private void run(String mode, String token, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                int authenticated = 0;
+                for (int i = 0; i < requests / THREADS; i++) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account/balance");
+                    request.addHeader("Authorization", "Bearer " + token);
+                    jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                    if (SecurityContextHolder.getContext().getAuthentication() != null) {
+                        authenticated++;
+                    }
+                    SecurityContextHolder.clearContext();
+                }
+                return authenticated;
+            }));
+        }
+        int authenticated = 0;
+        for (Future<Integer> result : results) {
+            authenticated += result.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdown();
+
+        assertEquals(requests / THREADS * THREADS, authenticated);
+        System.out.printf("auth benchmark: mode=%s threads=%d requests=%d requests/sec=%.0f%n",
+                mode, THREADS, authenticated, authenticated / seconds);
+    }
+}
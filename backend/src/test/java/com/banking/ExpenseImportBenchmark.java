@@ -0,0 +1,93 @@
+package com.banking;
+
+import com.banking.dto.ExpenseImportReport;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.ExpenseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports 100k generated CSV rows through ExpenseService.importExpenses under a capped heap. The
+ * upload is produced on the fly and never held whole; the heap cap has to leave room for the
+ * in-memory H2 database, which keeps the imported rows and the open transaction's undo log on the
+ * heap too. Every 1000th row is invalid to exercise the error report.
+ *
+ * Run with: mvn test -Dtest=ExpenseImportBenchmark -Dbenchmark=true -DargLine=-Xmx256m
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ExpenseImportBenchmark {
+
+    private static final String[] CATEGORIES = {"FOOD", "RENT", "TRAVEL", "BILLS", "SHOPPING", "HEALTH"};
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void importsHundredThousandRows() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        User user = userRepository.save(new User("Import Bench", "import-bench@test.com", "password", null));
+
+        long begin = System.nanoTime();
+        ExpenseImportReport report = expenseService.importExpenses(user, "csv", new GeneratedCsv(rows));
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        assertEquals(rows, report.getRowsRead());
+        assertEquals(rows / 1000, report.getRejected());
+        assertEquals(rows - rows / 1000, report.getImported());
+        assertEquals(report.getImported(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM expenses WHERE user_id = ?", Long.class, user.getUserId()));
+        assertEquals(report.getImported(), jdbcTemplate.queryForObject(
+                "SELECT SUM(expense_count) FROM expense_daily_rollups WHERE user_id = ?", Long.class, user.getUserId()));
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("import benchmark: rows=%d imported=%d seconds=%.2f rows/sec=%.0f usedHeap=%dMB maxHeap=%dMB%n",
+                rows, report.getImported(), seconds, rows / seconds,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20);
+    }
+
+    private static class GeneratedCsv extends InputStream {
+        private final int rows;
+        private final LocalDate today = LocalDate.now();
+        private int next = -1;
+        private byte[] line = "date,category,amount,note\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (next + 1 == rows) {
+                    return -1;
+                }
+                next++;
+                String date = next % 1000 == 999 ? "bad-date" : today.minusDays(next % 365).toString();
+                line = (date + "," + CATEGORIES[next % CATEGORIES.length] + "," + (1 + next % 5000) + ".25,row "
+                        + next + "\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
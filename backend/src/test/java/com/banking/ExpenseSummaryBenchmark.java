@@ -0,0 +1,146 @@
+package com.banking;
+
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.ExpenseRollupService;
+import com.banking.service.ExpenseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency and per-call allocation of the expense summaries for a user with 50k expenses, three ways:
+ * loading every Expense entity and grouping in Java (the old implementation), GROUP BY in the
+ * database, and reading the rollup tables.
+ *
+ * Run with: mvn test -Dtest=ExpenseSummaryBenchmark -Dbenchmark=true
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ExpenseSummaryBenchmark {
+
+    private static final int BATCH = 5000;
+
+    private static final int ITERATIONS = 50;
+
+    private static final String[] CATEGORIES = {"FOOD", "RENT", "TRAVEL", "BILLS", "SHOPPING", "HEALTH"};
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void summariesAt50kExpensesPerUser() {
+        int rows = Integer.getInteger("benchmark.rows", 50_000);
+
+        User user = userRepository.save(new User("Expense Bench", "expense-bench@test.com", "password", null));
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int done = 0; done < rows; done += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = done; i < Math.min(done + BATCH, rows); i++) {
+                batch.add(new Object[] {UuidV7Generator.nextUuid(), user.getUserId(), today.minusDays(random.nextInt(180)),
+                        CATEGORIES[random.nextInt(CATEGORIES.length)], BigDecimal.valueOf(1 + random.nextInt(100_000), 2)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO expenses (expense_id, user_id, expense_date, category, amount) "
+                    + "VALUES (?, ?, ?, ?, ?)", batch);
+        }
+        expenseRollupService.rebuildUser(user.getUserId());
+
+        YearMonth month = YearMonth.from(today.minusMonths(1));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Map<String, BigDecimal> expected = readOnly.execute(status -> entityMonthlySummary(user, 6));
+        run("entities monthly", () -> readOnly.execute(status -> entityMonthlySummary(user, 6)));
+        run("entities daily", () -> readOnly.execute(status -> entityDailySummary(user, month)));
+
+        ExpenseService target = AopTestUtils.getTargetObject(expenseService);
+        ReflectionTestUtils.setField(target, "rollupsEnabled", false);
+        try {
+            assertSameTotals(expected, expenseService.getMonthlySummary(user, 6));
+            run("group-by monthly", () -> expenseService.getMonthlySummary(user, 6));
+            run("group-by daily", () -> expenseService.getDailySummaryForMonth(user, month));
+        } finally {
+            ReflectionTestUtils.setField(target, "rollupsEnabled", true);
+        }
+
+        assertSameTotals(expected, expenseService.getMonthlySummary(user, 6));
+        run("rollup monthly", () -> expenseService.getMonthlySummary(user, 6));
+        run("rollup daily", () -> expenseService.getDailySummaryForMonth(user, month));
+    }
+
+    private void run(String name, Supplier<Map<?, BigDecimal>> summary) {
+        for (int i = 0; i < 5; i++) {
+            summary.get();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertFalse(summary.get().isEmpty());
+        }
+        double millis = (System.nanoTime() - begin) / 1_000_000.0 / ITERATIONS;
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / ITERATIONS;
+        System.out.printf("expense summary benchmark: %s avg=%.2fms allocated=%dKB/call%n", name, millis, allocated >> 10);
+    }
+
+    private static void assertSameTotals(Map<String, BigDecimal> expected, Map<String, BigDecimal> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((key, total) -> assertEquals(0, total.compareTo(actual.get(key))));
+    }
+
+    // The summaries as they were before the aggregate queries
+    private Map<String, BigDecimal> entityMonthlySummary(User user, int monthsBack) {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusMonths(monthsBack).withDayOfMonth(1);
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (Expense e : expenseRepository.findForUserInRange(user, start, end)) {
+            totals.merge(YearMonth.from(e.getDate()).toString(), e.getAmount(), BigDecimal::add);
+        }
+        return totals;
+    }
+
+    private Map<Integer, BigDecimal> entityDailySummary(User user, YearMonth month) {
+        Map<Integer, BigDecimal> totals = new HashMap<>();
+        for (Expense e : expenseRepository.findForUserInRange(user, month.atDay(1), month.atEndOfMonth())) {
+            totals.merge(e.getDate().getDayOfMonth(), e.getAmount(), BigDecimal::add);
+        }
+        return totals;
+    }
+}
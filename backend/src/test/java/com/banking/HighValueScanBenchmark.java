@@ -0,0 +1,142 @@
+package com.banking;
+
+import com.banking.dto.HighValueTransaction;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * High-value scan over 10M transactions: a full count of the ABS(amount) > threshold rows against
+ * the page the partial index idx_transactions_high_value serves. About one posting in a thousand is
+ * above the threshold. The SQL Hibernate generates for findHighValueTransactions is captured and
+ * EXPLAINed, and the plan must be an index-only scan of that index that never reads the table. The index exists on PostgreSQL
+ * only (H2 scans the table), so point the test at one, with the transaction_type and
+ * transaction_status types already created:
+ *
+ *   mvn test -Dtest=HighValueScanBenchmark -Dbenchmark=true \
+ *     -Dspring.datasource.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dspring.datasource.driver-class-name=org.postgresql.Driver \
+ *     -Dspring.datasource.username=... -Dspring.datasource.password=...
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.banking.HighValueScanBenchmark$HighValueSql"})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class HighValueScanBenchmark {
+
+    private static final int BATCH = 5000;
+
+    private static final BigDecimal THRESHOLD = new BigDecimal("100000");
+
+    // Keeps the last statement Hibernate prepared for the high-value query
+    public static class HighValueSql implements StatementInspector {
+
+        static volatile String last;
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("abs(")) {
+                last = sql;
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void indexedScanAgainstAbsPredicate() {
+        int rows = Integer.getInteger("benchmark.rows", 10_000_000);
+
+        Branch branch = branchRepository.save(new Branch("SCAN", "Scan Branch", "Scan Region"));
+        User user = userRepository.save(new User("Scan User", "scan@test.com", "password", null));
+        Account account = accountRepository.save(new Account(user, branch, "SCAN001"));
+
+        Random random = new Random(42);
+        // Spread over 60 days so the default 30-day window covers about half the table
+        LocalDateTime start = LocalDateTime.now().minusDays(60);
+        long spacing = Duration.ofDays(60).toNanos() / rows;
+        int highValue = 0;
+        for (int done = 0; done < rows; done += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = done; i < Math.min(done + BATCH, rows); i++) {
+                boolean large = random.nextInt(1000) == 0;
+                BigDecimal amount = BigDecimal.valueOf(large ? 100_001 + random.nextInt(900_000) : 1 + random.nextInt(10_000));
+                if (random.nextBoolean()) {
+                    amount = amount.negate();
+                }
+                Timestamp createdAt = Timestamp.valueOf(start.plusNanos(i * spacing));
+                batch.add(new Object[] {UuidV7Generator.nextUuid(), account.getAccountId(), amount, createdAt, createdAt});
+                highValue += large ? 1 : 0;
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO transactions (txn_id, account_id, type, amount, "
+                    + "status, created_at, updated_at) VALUES (?, ?, 'TRANSFER', ?, 'COMPLETED', ?, ?)", batch);
+        }
+        // Sets the visibility map as well as the statistics; until a row's page is all-visible an
+        // index-only scan still has to check the row in the table
+        jdbcTemplate.execute("VACUUM ANALYZE transactions");
+
+        long begin = System.nanoTime();
+        Long fullScan = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE ABS(amount) > ? AND status = 'COMPLETED'", Long.class, THRESHOLD);
+        double absMillis = (System.nanoTime() - begin) / 1_000_000.0;
+        assertEquals(highValue, fullScan);
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(30);
+        begin = System.nanoTime();
+        Slice<HighValueTransaction> page = transactionService.getHighValueTransactions(THRESHOLD, from, to, 0, 50);
+        double indexedMillis = (System.nanoTime() - begin) / 1_000_000.0;
+        assertEquals(50, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(t -> t.getAmount().abs().compareTo(THRESHOLD) > 0));
+
+        // The generated query binds threshold, from and to, then the page limit
+        String sql = HighValueSql.last;
+        assertNotNull(sql);
+        List<Object> parameters = new ArrayList<>(List.of(THRESHOLD,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+        while (parameters.size() < sql.chars().filter(c -> c == '?').count()) {
+            parameters.add(51);
+        }
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE) " + sql, String.class, parameters.toArray()));
+        System.out.println(sql);
+        System.out.println(plan);
+        assertTrue(plan.contains("Index Only Scan using idx_transactions_high_value"));
+        assertTrue(plan.contains("Heap Fetches: 0"));
+
+        System.out.printf("high-value benchmark: rows=%d matches=%d absScan=%.1fms indexedPage=%.1fms%n",
+                rows, highValue, absMillis, indexedMillis);
+    }
+}
@@ -0,0 +1,79 @@
+package com.banking;
+
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-request cost of token verification. "before" is the old JwtUtil: a new key and parser for
+ * each of the three parses a request used to make (extractUsername, then validateToken's subject
+ * and expiration). "shared-parser" is one parse with the parser built once, as for a token seen
+ * for the first time; "verified-cache" is a repeat of an already verified token.
+ *
+ * Run with: mvn test -Dtest=JwtParseBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class JwtParseBenchmark {
+
+    private static final int WARMUP = 5_000;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${spring.security.jwt.secret}")
+    private String secret;
+
+    @Test
+    public void perRequestVerificationCost() {
+        int iterations = Integer.getInteger("benchmark.iterations", 50_000);
+        String token = jwtUtil.generateToken(new AuthenticatedUser(UUID.randomUUID(), "bench", "bench@test.com",
+                "USER", null, true));
+        JwtParser shared = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret.getBytes())).build();
+
+        for (int round = 0; round < 2; round++) {
+            measure("before", iterations, () -> {
+                String subject = null;
+                for (int i = 0; i < 3; i++) {
+                    subject = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret.getBytes())).build()
+                            .parseClaimsJws(token).getBody().getSubject();
+                }
+                return subject;
+            });
+            measure("shared-parser", iterations, () -> shared.parseClaimsJws(token).getBody().getSubject());
+            measure("verified-cache", iterations, () -> jwtUtil.extractAllClaims(token).getSubject());
+        }
+    }
+
+    private void measure(String variant, int iterations, Supplier<String> verify) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals("bench", verify.get());
+        }
+        long start = System.nanoTime();
+        int matched = 0;
+        for (int i = 0; i < iterations; i++) {
+            if ("bench".equals(verify.get())) {
+                matched++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(iterations, matched);
+        System.out.printf("jwt benchmark: variant=%s iterations=%d ns/op=%d ops/sec=%.0f%n",
+                variant, iterations, elapsed / iterations, iterations / (elapsed / 1_000_000_000.0));
+    }
+}
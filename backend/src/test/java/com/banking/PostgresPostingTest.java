@@ -0,0 +1,156 @@
+package com.banking;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The posting path only PostgreSQL takes: TransactionService debits and credits with
+ * AccountRepository.debitReturningBalance / creditReturningBalance (UPDATE ... RETURNING, run as a
+ * native select) there, and with an UPDATE and a read-back on H2. Runs against a Testcontainers
+ * PostgreSQL, or against the database given with -Dspring.datasource.url=jdbc:postgresql://...
+ * (plus driver-class-name, username and password, as for the benchmarks); skipped without either.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "banking.fraud.enabled=false",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-postgresql.sql",
+    "spring.sql.init.continue-on-error=true"
+})
+@ActiveProfiles("test")
+@EnabledIf("postgresAvailable")
+public class PostgresPostingTest {
+
+    private static final String EXTERNAL_URL = System.getProperty("spring.datasource.url", "");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static boolean postgresAvailable() {
+        return EXTERNAL_URL.startsWith("jdbc:postgresql:") || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL.startsWith("jdbc:postgresql:")) {
+            return;
+        }
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @Test
+    public void postingsUseUpdateReturning() {
+        TransactionService target = AopTestUtils.getTargetObject(transactionService);
+        assertEquals(true, ReflectionTestUtils.getField(target, "updateReturning"));
+        Account account = newAccount(new BigDecimal("100.00"));
+        UUID accountId = account.getAccountId();
+
+        UUID withdrawal = transactionService.withdraw(new TransactionRequest(accountId, new BigDecimal("30.00"), null));
+        assertEquals(0, new BigDecimal("70.00").compareTo(transactionRepository.findById(withdrawal).orElseThrow().getBalanceAfter()));
+        UUID deposit = transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("5.00"), null));
+        assertEquals(0, new BigDecimal("75.00").compareTo(transactionRepository.findById(deposit).orElseThrow().getBalanceAfter()));
+
+        RuntimeException shortOfFunds = assertThrows(RuntimeException.class,
+            () -> transactionService.withdraw(new TransactionRequest(accountId, new BigDecimal("500.00"), null)));
+        assertTrue(shortOfFunds.getMessage().contains("Insufficient balance"));
+        assertEquals(0, new BigDecimal("75.00").compareTo(balance(accountId)));
+
+        jdbcTemplate.update("UPDATE accounts SET is_active = false WHERE account_id = ?", accountId);
+        RuntimeException inactive = assertThrows(RuntimeException.class,
+            () -> transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("5.00"), null)));
+        assertTrue(inactive.getMessage().contains("Account is inactive"));
+        assertEquals(0, new BigDecimal("75.00").compareTo(balance(accountId)));
+    }
+
+    @Test
+    public void returningUpdatesFlushButDoNotClear() {
+        UUID accountId = newAccount(new BigDecimal("100.00")).getAccountId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // A pending change to the account is flushed before the UPDATE, which then sees it
+        Optional<BigDecimal> debited = transaction.execute(status -> {
+            entityManager.find(Account.class, accountId).setIsActive(false);
+            status.setRollbackOnly();
+            return accountRepository.debitReturningBalance(accountId, new BigDecimal("10.00"));
+        });
+        assertTrue(debited.isEmpty());
+
+        // The managed Account keeps the balance it was loaded with; the result has the new one
+        transaction.executeWithoutResult(status -> {
+            Account managed = entityManager.find(Account.class, accountId);
+            assertEquals(0, new BigDecimal("110.00").compareTo(
+                accountRepository.creditReturningBalance(accountId, new BigDecimal("10.00")).orElseThrow()));
+            assertEquals(0, new BigDecimal("100.00").compareTo(managed.getBalance()));
+        });
+        assertEquals(0, new BigDecimal("110.00").compareTo(balance(accountId)));
+
+        // Never on its own, where the change would commit outside any posting
+        assertThrows(IllegalTransactionStateException.class,
+            () -> accountRepository.creditReturningBalance(accountId, new BigDecimal("10.00")));
+    }
+
+    private Account newAccount(BigDecimal balance) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Branch branch = branchRepository.save(new Branch("PG" + suffix, "Postgres Branch", "Postgres Region"));
+        User user = userRepository.save(new User("Postgres User", "pg-" + suffix + "@test.com", "password", null));
+        Account account = new Account(user, branch, "PG" + suffix);
+        account.setBalance(balance);
+        return accountRepository.save(account);
+    }
+
+    private BigDecimal balance(UUID accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+}
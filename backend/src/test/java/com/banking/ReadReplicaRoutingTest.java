@@ -0,0 +1,100 @@
+package com.banking;
+
+import com.banking.config.ReplicaDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory H2 databases stand in for the primary and its replica; DATABASE() tells them apart
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+    "banking.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+    "banking.datasource.replica.lag-query=SELECT lag_seconds FROM replica_lag",
+    "banking.datasource.replica.lag-check-ms=3600000",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+public class ReadReplicaRoutingTest {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+    
+    @Autowired
+    @Qualifier("replicaPool")
+    private DataSource replicaPool;
+    
+    private JdbcTemplate replica;
+    
+    @BeforeEach
+    public void replicaCaughtUp() {
+        replica = new JdbcTemplate(replicaPool);
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_seconds DOUBLE PRECISION)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replicaDataSource.checkLag();
+        assertTrue(replicaDataSource.isHealthy());
+    }
+    
+    @Test
+    public void readOnlyTransactionsUseReplica() {
+        assertEquals("REPLICA", databaseIn(true));
+        assertEquals("PRIMARY", databaseIn(false));
+        
+        // Outside a transaction nothing is marked read-only
+        assertEquals("PRIMARY", jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+    
+    @Test
+    public void laggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replica_lag SET lag_seconds = 5");
+        replicaDataSource.checkLag();
+        
+        assertFalse(replicaDataSource.isHealthy());
+        assertEquals("PRIMARY", databaseIn(true));
+        
+        replica.update("UPDATE replica_lag SET lag_seconds = 0.2");
+        replicaDataSource.checkLag();
+        assertEquals("REPLICA", databaseIn(true));
+    }
+    
+    @Test
+    public void unknownLagFallsBackToPrimary() {
+        // What the default query returns for a standby whose WAL receiver is not streaming
+        replica.update("UPDATE replica_lag SET lag_seconds = NULL");
+        replicaDataSource.checkLag();
+        
+        assertFalse(replicaDataSource.isHealthy());
+        assertEquals("PRIMARY", databaseIn(true));
+    }
+    
+    @Test
+    public void failedLagCheckFallsBackToPrimary() {
+        replica.execute("DROP TABLE replica_lag");
+        replicaDataSource.checkLag();
+        
+        assertFalse(replicaDataSource.isHealthy());
+        assertEquals("PRIMARY", databaseIn(true));
+    }
+    
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking;
+
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.StatementExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a 1M-row statement through StatementExportService under a capped heap. The rows live in
+ * a file-backed H2 database so the only thing that could fill the heap is the export itself;
+ * materializing the statement as entities would not fit.
+ *
+ * Run with: mvn test -Dtest=StatementExportBenchmark -Dbenchmark=true -DargLine=-Xmx128m
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/statement-export;LAZY_QUERY_EXECUTION=1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.sql.init.mode=always",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class StatementExportBenchmark {
+
+    private static final int BATCH = 5000;
+
+    @Autowired
+    private StatementExportService statementExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void exportsMillionRowsInConstantMemory() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+
+        Branch branch = branchRepository.save(new Branch("EXPORT", "Export Branch", "Export Region"));
+        User user = userRepository.save(new User("Export User", "export@test.com", "password", null));
+        Account account = accountRepository.save(new Account(user, branch, "EXPORT001"));
+
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        for (int done = 0; done < rows; done += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = done; i < Math.min(done + BATCH, rows); i++) {
+                Timestamp createdAt = Timestamp.valueOf(start.plusNanos(i * 1000L));
+                batch.add(new Object[] {UuidV7Generator.nextUuid(), account.getAccountId(), new BigDecimal("1.00"),
+                        new BigDecimal(i + 1), "Posting, \"" + i + "\"", createdAt, createdAt});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO transactions (txn_id, account_id, type, amount, balance_after, "
+                    + "description, status, created_at, updated_at) VALUES (?, ?, 'DEPOSIT', ?, ?, ?, 'COMPLETED', ?, ?)",
+                    batch);
+        }
+
+        for (String format : new String[] {"csv", "ndjson"}) {
+            CountingOutputStream out = new CountingOutputStream();
+            long begin = System.nanoTime();
+            long exported = statementExportService.export(account.getAccountId(),
+                    start.toLocalDate(), LocalDate.now(), format, out);
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+            assertEquals(rows, exported);
+            assertEquals("csv".equals(format) ? rows + 1 : rows, out.lines);
+            System.out.printf("export benchmark: format=%s rows=%d bytes=%d rows/sec=%.0f maxHeap=%dMB%n",
+                    format, exported, out.bytes, exported / seconds, Runtime.getRuntime().maxMemory() >> 20);
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+        long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// Tests that run outside a test transaction commit their fixtures; this empties every table after
+// them so nothing they wrote leaks into the tests that follow in the shared context (H2 only)
+public final class TestDatabase {
+    
+    private TestDatabase() {}
+    
+    public static void clean(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+                "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}
@@ -1,19 +1,50 @@
 package com.banking;
 
+import com.banking.dto.BatchTransferResult;
+import com.banking.dto.AccountSummary;
+import com.banking.dto.CursorPage;
+import com.banking.dto.HighValueTransaction;
+import com.banking.dto.RecentActivity;
+import com.banking.dto.TransactionLine;
+import com.banking.dto.TransactionRequest;
 import com.banking.model.*;
 import com.banking.repository.*;
+import com.banking.service.AccountCache;
+import com.banking.service.AccountService;
+import com.banking.service.BalanceSnapshotService;
+import com.banking.service.IdempotencyConflictException;
+import com.banking.service.IdempotencyService;
+import com.banking.service.TransactionRetryPolicy;
 import com.banking.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +56,21 @@ public class TransactionTest {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private AccountCache accountCache;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private TransactionRetryPolicy retryPolicy;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -34,6 +80,23 @@ public class TransactionTest {
     @Autowired
     private BranchRepository branchRepository;
     
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    // NOT_SUPPORTED tests commit their fixtures; a test transaction rolls back on its own
+    @AfterEach
+    void cleanUpCommittedData() {
+        if (!TestTransaction.isActive()) {
+            TestDatabase.clean(jdbcTemplate);
+        }
+    }
+    
     @Test
     public void testACIDTransactionRollback() {
         // Create test data
@@ -88,8 +151,9 @@ public class TransactionTest {
     }
     
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void testDeadlockPrevention() throws Exception {
-        // Create test accounts
+        // Create test accounts (committed, so the worker threads can see them)
         Branch branch = new Branch("TEST02", "Test Branch 2", "Test Region");
         branchRepository.save(branch);
         
@@ -141,6 +205,424 @@ public class TransactionTest {
         assertNotNull(txn1);
         assertNotNull(txn2);
         
+        // Money is conserved across both postings
+        Account finalAccount1 = accountRepository.findById(account1.getAccountId()).get();
+        Account finalAccount2 = accountRepository.findById(account2.getAccountId()).get();
+        assertEquals(new BigDecimal("1050.00"), finalAccount1.getBalance());
+        assertEquals(new BigDecimal("950.00"), finalAccount2.getBalance());
+        
         executor.shutdown();
     }
+    
+    @Test
+    public void testBatchTransferReportsEachItem() {
+        Branch branch = branchRepository.save(new Branch("TEST03", "Test Branch 3", "Test Region"));
+        
+        User user1 = userRepository.save(new User("Batch User 1", "batch1@test.com", "password", "3333333333"));
+        User user2 = userRepository.save(new User("Batch User 2", "batch2@test.com", "password", "4444444444"));
+        
+        Account account1 = new Account(user1, branch, "BATCH001");
+        Account account2 = new Account(user2, branch, "BATCH002");
+        account1.setBalance(new BigDecimal("300.00"));
+        account2.setBalance(new BigDecimal("100.00"));
+        accountRepository.save(account1);
+        accountRepository.save(account2);
+        
+        TransactionRequest first = new TransactionRequest(account1.getAccountId(), new BigDecimal("200.00"), "Payroll 1");
+        first.setToAccountId(account2.getAccountId());
+        TransactionRequest overdraft = new TransactionRequest(account1.getAccountId(), new BigDecimal("500.00"), "Payroll 2");
+        overdraft.setToAccountId(account2.getAccountId());
+        TransactionRequest back = new TransactionRequest(account2.getAccountId(), new BigDecimal("50.00"), "Refund");
+        back.setToAccountId(account1.getAccountId());
+        
+        List<BatchTransferResult> results = transactionService.batchTransfer(Arrays.asList(first, overdraft, back, null));
+        
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getTransactionId());
+        assertFalse(results.get(1).isSuccess());
+        assertNull(results.get(1).getTransactionId());
+        assertEquals("Insufficient balance in source account", results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("Transfer is required", results.get(3).getError());
+        
+        assertEquals(new BigDecimal("150.00"), accountRepository.findById(account1.getAccountId()).get().getBalance());
+        assertEquals(new BigDecimal("250.00"), accountRepository.findById(account2.getAccountId()).get().getBalance());
+    }
+    
+    @Test
+    public void testIdempotencyKeyReplaysFirstResult() {
+        Branch branch = branchRepository.save(new Branch("TEST04", "Test Branch 4", "Test Region"));
+        User user = userRepository.save(new User("Retry User", "retry@test.com", "password", "5555555555"));
+        Account account = new Account(user, branch, "RETRY001");
+        account.setBalance(new BigDecimal("100.00"));
+        accountRepository.save(account);
+        
+        TransactionRequest request = new TransactionRequest(account.getAccountId(), new BigDecimal("25.00"), "Mobile deposit");
+        
+        UUID first = idempotencyService.execute(user.getUserId(), "retry-key-1", "DEPOSIT", request,
+                () -> transactionService.deposit(request));
+        UUID replay = idempotencyService.execute(user.getUserId(), "retry-key-1", "DEPOSIT", request,
+                () -> transactionService.deposit(request));
+        
+        assertEquals(first, replay);
+        assertEquals(new BigDecimal("125.00"), accountRepository.findById(account.getAccountId()).get().getBalance());
+        
+        // The same key cannot be reused for a different operation or a different amount
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(user.getUserId(), "retry-key-1",
+                "WITHDRAW", request, () -> transactionService.withdraw(request)));
+        TransactionRequest larger = new TransactionRequest(account.getAccountId(), new BigDecimal("250.00"), "Mobile deposit");
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(user.getUserId(), "retry-key-1",
+                "DEPOSIT", larger, () -> transactionService.deposit(larger)));
+        
+        // Keys belong to the user who sent them: another user's identical key is a new request
+        User other = userRepository.save(new User("Other Retry User", "retry2@test.com", "password", "5555555556"));
+        UUID otherTxn = idempotencyService.execute(other.getUserId(), "retry-key-1", "DEPOSIT", request,
+                () -> transactionService.deposit(request));
+        
+        assertNotEquals(first, otherTxn);
+        assertEquals(new BigDecimal("150.00"), accountRepository.findById(account.getAccountId()).get().getBalance());
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testIdempotencyKeyRaceReplaysWinner() {
+        Branch branch = branchRepository.save(new Branch("TEST05", "Test Branch 5", "Test Region"));
+        User user = userRepository.save(new User("Race User", "race@test.com", "password", "5555555557"));
+        Account account = new Account(user, branch, "RACE001");
+        account.setBalance(new BigDecimal("100.00"));
+        accountRepository.save(account);
+        
+        TransactionRequest request = new TransactionRequest(account.getAccountId(), new BigDecimal("25.00"), "Mobile deposit");
+        
+        // The competing request commits the key after this one has looked it up and found nothing
+        AtomicReference<UUID> winner = new AtomicReference<>();
+        UUID loser = idempotencyService.execute(user.getUserId(), "race-key-1", "DEPOSIT", request, () -> {
+            winner.compareAndSet(null, CompletableFuture.supplyAsync(() -> idempotencyService.execute(
+                    user.getUserId(), "race-key-1", "DEPOSIT", request, () -> transactionService.deposit(request))).join());
+            return transactionService.deposit(request);
+        });
+        
+        assertEquals(winner.get(), loser);
+        assertEquals(new BigDecimal("125.00"), accountRepository.findById(account.getAccountId()).get().getBalance());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE account_id = ?", Long.class, account.getAccountId()));
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testRetryPolicyRerunsLockFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        String result = retryPolicy.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("could not serialize access");
+            }
+            return "committed";
+        });
+        
+        assertEquals("committed", result);
+        assertEquals(3, calls.get());
+        
+        // Business failures are not retried
+        calls.set(0);
+        assertThrows(RuntimeException.class, () -> retryPolicy.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Insufficient balance");
+        }));
+        assertEquals(1, calls.get());
+    }
+    
+    @Test
+    public void testConditionalWithdrawal() {
+        Branch branch = branchRepository.save(new Branch("TEST05", "Test Branch 5", "Test Region"));
+        User user = userRepository.save(new User("Cash User", "cash@test.com", "password", "6666666666"));
+        Account account = new Account(user, branch, "CASH001");
+        account.setBalance(new BigDecimal("100.00"));
+        accountRepository.save(account);
+        
+        UUID txnId = transactionService.withdraw(
+            new TransactionRequest(account.getAccountId(), new BigDecimal("60.00"), "ATM"));
+        assertNotNull(txnId);
+        assertEquals(new BigDecimal("40.00"), accountRepository.findById(account.getAccountId()).get().getBalance());
+        
+        // Insufficient funds is detected from the UPDATE's row count and leaves the balance alone
+        RuntimeException e = assertThrows(RuntimeException.class, () -> transactionService.withdraw(
+            new TransactionRequest(account.getAccountId(), new BigDecimal("60.00"), "ATM")));
+        assertEquals("Withdrawal failed: Insufficient balance", e.getMessage());
+        assertEquals(new BigDecimal("40.00"), accountRepository.findById(account.getAccountId()).get().getBalance());
+    }
+    
+    @Test
+    public void testTransactionIdsAreTimeOrdered() {
+        UUID previous = UuidV7Generator.nextUuid();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7Generator.nextUuid();
+            assertEquals(7, next.version());
+            // PostgreSQL orders uuid by unsigned bytes, so compare the halves unsigned
+            int order = Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits());
+            assertTrue(order < 0 || (order == 0
+                    && Long.compareUnsigned(previous.getLeastSignificantBits(), next.getLeastSignificantBits()) < 0));
+            previous = next;
+        }
+    }
+    
+    @Test
+    public void testHistoryKeysetPagination() {
+        Branch branch = branchRepository.save(new Branch("TEST06", "Test Branch 6", "Test Region"));
+        User user = userRepository.save(new User("Paging User", "paging@test.com", "password", "7777777777"));
+        Account account = accountRepository.save(new Account(user, branch, "PAGE001"));
+        
+        for (int i = 1; i <= 5; i++) {
+            transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal(i), "Deposit " + i));
+        }
+        
+        List<TransactionLine> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<TransactionLine> page = transactionService.getTransactionHistory(account.getAccountId(), cursor, 2);
+            seen.addAll(page.getItems());
+            cursor = page.getNext();
+            pages++;
+        } while (cursor != null);
+        
+        assertEquals(3, pages);
+        assertEquals(5, seen.size());
+        assertEquals(5, new HashSet<>(seen.stream().map(TransactionLine::getTxnId).toList()).size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertFalse(seen.get(i).getCreatedAt().isAfter(seen.get(i - 1).getCreatedAt()));
+        }
+        
+        assertThrows(RuntimeException.class,
+            () -> transactionService.getTransactionHistory(account.getAccountId(), "not-a-cursor", 2));
+    }
+    
+    @Test
+    public void testProjectionsIssueSingleStatement() {
+        Branch branch = branchRepository.save(new Branch("TEST07", "Test Branch 7", "Test Region"));
+        User user = userRepository.save(new User("Projection User", "projection@test.com", "password", "6666666666"));
+        Account first = accountRepository.save(new Account(user, branch, "PROJ001"));
+        accountRepository.save(new Account(user, branch, "PROJ002"));
+        for (int i = 1; i <= 3; i++) {
+            transactionService.deposit(new TransactionRequest(first.getAccountId(), new BigDecimal(i), "Deposit " + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        
+        // Branch and history columns come back with the list itself: no per-row lazy loads
+        statistics.clear();
+        List<AccountSummary> accounts = accountService.findAccountSummaries(user.getUserId());
+        assertEquals(2, accounts.size());
+        assertTrue(accounts.stream().allMatch(a -> "TEST07".equals(a.getBranchCode())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        
+        statistics.clear();
+        CursorPage<TransactionLine> page = transactionService.getTransactionHistory(first.getAccountId(), null, 50);
+        assertEquals(3, page.getItems().size());
+        assertEquals(new BigDecimal("6.00"), page.getItems().get(0).getBalanceAfter());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testAccountCacheWritesThroughAfterCommit() {
+        // Committed fixtures: the cache is only written to after a posting commits
+        Branch branch = branchRepository.save(new Branch("TEST08", "Test Branch 8", "Test Region"));
+        User user = userRepository.save(new User("Cache User", "cache@test.com", "password", "5555555555"));
+        Account account = accountRepository.save(new Account(user, branch, "CACHE001"));
+        
+        double hits = meterRegistry.counter("banking.account.cache.requests", "result", "hit").count();
+        double misses = meterRegistry.counter("banking.account.cache.requests", "result", "miss").count();
+        
+        AccountSummary loaded = accountCache.findPrimaryAccount(user.getUserId()).orElseThrow();
+        assertEquals(0, loaded.getBalance().compareTo(BigDecimal.ZERO));
+        assertEquals("TEST08", loaded.getBranchCode());
+        
+        transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("150.00"), "Deposit"));
+        transactionService.withdraw(new TransactionRequest(account.getAccountId(), new BigDecimal("50.00"), "Withdraw"));
+        
+        // Served from memory, already carrying the committed balance
+        assertEquals(0, accountCache.findPrimaryAccount(user.getUserId()).orElseThrow()
+                .getBalance().compareTo(new BigDecimal("100.00")));
+        assertEquals(misses + 1, meterRegistry.counter("banking.account.cache.requests", "result", "miss").count());
+        assertEquals(hits + 1, meterRegistry.counter("banking.account.cache.requests", "result", "hit").count());
+        
+        // A failed posting rolls back and leaves the cached balance alone
+        assertThrows(RuntimeException.class, () -> transactionService.withdraw(
+            new TransactionRequest(account.getAccountId(), new BigDecimal("500.00"), "Too much")));
+        assertEquals(0, accountCache.findPrimaryAccount(user.getUserId()).orElseThrow()
+                .getBalance().compareTo(new BigDecimal("100.00")));
+        
+        accountService.deactivateAccount(account.getAccountId());
+        assertTrue(accountCache.findPrimaryAccount(user.getUserId()).isEmpty());
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testMiniStatementServedFromRingBuffer() {
+        Branch branch = branchRepository.save(new Branch("TEST11", "Test Branch 11", "Test Region"));
+        User user = userRepository.save(new User("Statement User", "statement@test.com", "password", "2222222222"));
+        Account account = accountRepository.save(new Account(user, branch, "MINI001"));
+        
+        for (int i = 1; i <= 3; i++) {
+            transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal(i), "Deposit " + i));
+        }
+        
+        // First read hydrates from the transactions table; rows keep the txn_id, type, amount,
+        // balance_after, description, created_at layout
+        List<Object[]> statement = transactionService.getMiniStatement(account.getAccountId());
+        assertEquals(3, statement.size());
+        assertEquals(TransactionType.DEPOSIT, statement.get(0)[1]);
+        assertEquals(0, new BigDecimal("6.00").compareTo((BigDecimal) statement.get(0)[3]));
+        
+        // Later postings are appended after commit and read back without touching the database
+        for (int i = 4; i <= 12; i++) {
+            transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal(i), "Deposit " + i));
+        }
+        transactionService.withdraw(new TransactionRequest(account.getAccountId(), new BigDecimal("8.00"), "Withdraw"));
+        
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        statement = transactionService.getMiniStatement(account.getAccountId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        
+        assertEquals(10, statement.size());
+        assertEquals(TransactionType.WITHDRAW, statement.get(0)[1]);
+        assertEquals(0, new BigDecimal("70.00").compareTo((BigDecimal) statement.get(0)[3]));
+        assertEquals("Deposit 4", statement.get(9)[4]);
+    }
+    
+    @Test
+    public void testHighValueScanIsPagedAndDateBounded() {
+        Branch branch = branchRepository.save(new Branch("TEST12", "Test Branch 12", "Test Region"));
+        User user = userRepository.save(new User("Whale User", "whale@test.com", "password", "1111111111"));
+        Account account = accountRepository.save(new Account(user, branch, "WHALE001"));
+        
+        UUID old = transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("9000000.00"), "Old"));
+        for (int i = 1; i <= 3; i++) {
+            transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal(i * 1000000), "Deposit " + i));
+        }
+        transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("10.00"), "Small"));
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE transactions SET created_at = :at WHERE txn_id = :id")
+            .setParameter("at", LocalDateTime.now().minusDays(60))
+            .setParameter("id", old)
+            .executeUpdate();
+        // A row written outside JPA is ranked by its magnitude all the same
+        UUID debit = UUID.randomUUID();
+        entityManager.createNativeQuery("INSERT INTO transactions (txn_id, account_id, type, amount, status, created_at) " +
+                "VALUES (:id, :account, 'WITHDRAW', -5000000.00, 'COMPLETED', :at)")
+            .setParameter("id", debit)
+            .setParameter("account", account.getAccountId())
+            .setParameter("at", LocalDateTime.now())
+            .executeUpdate();
+        
+        BigDecimal threshold = new BigDecimal("500000");
+        Slice<HighValueTransaction> first = transactionService.getHighValueTransactions(threshold, null, null, 0, 2);
+        Slice<HighValueTransaction> second = transactionService.getHighValueTransactions(threshold, null, null, 1, 2);
+        
+        // Largest magnitude first; the debit counts by its absolute value and the old row is outside the window
+        assertTrue(first.hasNext());
+        assertFalse(second.hasNext());
+        assertEquals(debit, first.getContent().get(0).getTxnId());
+        assertEquals(0, new BigDecimal("-5000000.00").compareTo(first.getContent().get(0).getAmount()));
+        assertEquals(account.getAccountId(), first.getContent().get(0).getAccountId());
+        assertEquals(0, new BigDecimal("3000000.00").compareTo(first.getContent().get(1).getAmount()));
+        assertEquals(2, second.getContent().size());
+        
+        Slice<HighValueTransaction> withOld = transactionService.getHighValueTransactions(threshold,
+            LocalDate.now().minusDays(90), LocalDate.now(), 0, 10);
+        assertEquals(old, withOld.getContent().get(0).getTxnId());
+        
+        assertThrows(RuntimeException.class,
+            () -> transactionService.getHighValueTransactions(threshold, null, null, 0, 1000));
+        assertThrows(RuntimeException.class,
+            () -> transactionService.getHighValueTransactions(threshold, LocalDate.now(), LocalDate.now().minusDays(1), 0, 10));
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testVelocityCountersSlideAndWriteThrough() {
+        Branch branch = branchRepository.save(new Branch("TEST13", "Test Branch 13", "Test Region"));
+        User user = userRepository.save(new User("Velocity User", "velocity@test.com", "password", "1212121212"));
+        Account account = accountRepository.save(new Account(user, branch, "VELO001"));
+        
+        UUID earlier = transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("100.00"), "Earlier"));
+        transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("20.00"), "Deposit"));
+        jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE txn_id = ?",
+            LocalDateTime.now().minusHours(2), earlier);
+        
+        // First read loads the account's window from the transactions table
+        assertEquals(1L, transactionService.getRecentTransactionCount(account.getAccountId(), 1));
+        RecentActivity threeHours = transactionService.getRecentActivity(account.getAccountId(), 3);
+        assertEquals(2, threeHours.getCount());
+        assertEquals(0, new BigDecimal("120.00").compareTo(threeHours.getAmount()));
+        
+        // Committed postings are added in memory; debits count by absolute value
+        transactionService.deposit(new TransactionRequest(account.getAccountId(), new BigDecimal("30.00"), "Deposit"));
+        transactionService.withdraw(new TransactionRequest(account.getAccountId(), new BigDecimal("45.50"), "Withdraw"));
+        assertThrows(RuntimeException.class, () -> transactionService.withdraw(
+            new TransactionRequest(account.getAccountId(), new BigDecimal("9999.00"), "Too much")));
+        
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        RecentActivity lastHour = transactionService.getRecentActivity(account.getAccountId(), 1);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3, lastHour.getCount());
+        assertEquals(0, new BigDecimal("95.50").compareTo(lastHour.getAmount()));
+        
+        // Spans beyond the window still come from the database
+        assertEquals(4L, transactionService.getRecentTransactionCount(account.getAccountId(), 48));
+        assertThrows(RuntimeException.class, () -> transactionService.getRecentActivity(account.getAccountId(), 48));
+    }
+    
+    @Test
+    public void testBalanceAtReplaysFromDailySnapshot() {
+        Branch branch = branchRepository.save(new Branch("TEST14", "Test Branch 14", "Test Region"));
+        User user = userRepository.save(new User("Snapshot User", "snapshot@test.com", "password", "1313131313"));
+        Account account = accountRepository.save(new Account(user, branch, "SNAP001"));
+        UUID accountId = account.getAccountId();
+        
+        LocalDate today = LocalDate.now();
+        LocalDate twoDaysAgo = today.minusDays(2);
+        LocalDate yesterday = today.minusDays(1);
+        postAt(transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("100.00"), "Deposit")),
+            twoDaysAgo.atTime(10, 0));
+        postAt(transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("50.00"), "Deposit")),
+            twoDaysAgo.atTime(15, 0));
+        postAt(transactionService.withdraw(new TransactionRequest(accountId, new BigDecimal("30.00"), "Withdraw")),
+            yesterday.atTime(9, 0));
+        transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("5.00"), "Deposit"));
+        entityManager.flush();
+        
+        assertTrue(balanceSnapshotService.snapshotDay(twoDaysAgo) >= 1);
+        assertTrue(balanceSnapshotService.snapshotDay(yesterday) >= 1);
+        // Rerunning a day replaces its rows
+        assertTrue(balanceSnapshotService.snapshotDay(yesterday) >= 1);
+        
+        // Before any snapshot: the latest posting at or before the instant
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceSnapshotService.balanceAt(accountId, twoDaysAgo.atTime(9, 0))));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceSnapshotService.balanceAt(accountId, twoDaysAgo.atTime(12, 0))));
+        
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        // Snapshot of the day before, then that day's postings up to the instant
+        assertEquals(0, new BigDecimal("150.00").compareTo(balanceSnapshotService.balanceAt(accountId, yesterday.atTime(8, 0))));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("120.00").compareTo(balanceSnapshotService.balanceAt(accountId, yesterday.atTime(10, 0))));
+        assertEquals(0, new BigDecimal("125.00").compareTo(balanceSnapshotService.balanceAt(accountId, LocalDateTime.now())));
+    }
+    
+    private void postAt(UUID txnId, LocalDateTime createdAt) {
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE txn_id = ?", createdAt, txnId);
+    }
 }
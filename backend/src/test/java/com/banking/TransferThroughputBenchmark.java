@@ -0,0 +1,126 @@
+package com.banking;
+
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hot-account transfer throughput at 1, 8 and 64 threads.
+ * Every transfer moves money between one shared hot account and a random spoke account,
+ * in a random direction, so opposite-order lock requests are the common case.
+ *
+ * Run with: mvn test -Dtest=TransferThroughputBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TransferThroughputBenchmark {
+
+    private static final int SPOKE_ACCOUNTS = 32;
+    private static final int TRANSFERS_PER_RUN = 2000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    private UUID hotAccountId;
+    private final List<UUID> spokeAccountIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Branch branch = branchRepository.save(new Branch("B" + run, "Bench Branch", "Bench Region"));
+
+        hotAccountId = createAccount(branch, "hot-" + run, new BigDecimal("1000000000.00"));
+        for (int i = 0; i < SPOKE_ACCOUNTS; i++) {
+            spokeAccountIds.add(createAccount(branch, "spoke" + i + "-" + run, new BigDecimal("1000000.00")));
+        }
+    }
+
+    private UUID createAccount(Branch branch, String name, BigDecimal balance) {
+        User user = userRepository.save(new User(name, name + "@bench.test", "password", null));
+        Account account = new Account(user, branch, name.replace("-", ""));
+        account.setBalance(balance);
+        return accountRepository.save(account).getAccountId();
+    }
+
+    @Test
+    public void hotAccountTransfersPerSecond() throws Exception {
+        BigDecimal before = totalBalance();
+
+        for (int threads : new int[] {1, 8, 64}) {
+            double tps = run(threads);
+            System.out.printf("transfer benchmark: threads=%d transfers=%d tps=%.1f%n",
+                    threads, TRANSFERS_PER_RUN, tps);
+        }
+
+        assertEquals(0, before.compareTo(totalBalance()), "transfers must conserve money");
+    }
+
+    private double run(int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger remaining = new AtomicInteger(TRANSFERS_PER_RUN);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    UUID spoke = spokeAccountIds.get(random.nextInt(spokeAccountIds.size()));
+                    boolean outbound = random.nextBoolean();
+                    try {
+                        transactionService.transfer(
+                            outbound ? hotAccountId : spoke,
+                            outbound ? spoke : hotAccountId,
+                            new BigDecimal("1.00"),
+                            "Benchmark transfer"
+                        );
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(0, failures.get(), "no transfer should fail under contention");
+        return TRANSFERS_PER_RUN / (elapsed / 1_000_000_000.0);
+    }
+
+    private BigDecimal totalBalance() {
+        BigDecimal total = accountRepository.findById(hotAccountId).get().getBalance();
+        for (UUID spoke : spokeAccountIds) {
+            total = total.add(accountRepository.findById(spoke).get().getBalance());
+        }
+        return total;
+    }
+}
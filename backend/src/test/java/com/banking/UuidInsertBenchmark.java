@@ -0,0 +1,82 @@
+package com.banking;
+
+import com.banking.model.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput and primary-key index size for random (v4) versus time-ordered (v7) UUIDs.
+ * Index sizes are reported on PostgreSQL only; point the test at one with e.g.
+ *
+ *   mvn test -Dtest=UuidInsertBenchmark -Dbenchmark=true -Dbenchmark.rows=5000000 \
+ *     -Dspring.datasource.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dspring.datasource.driver-class-name=org.postgresql.Driver \
+ *     -Dspring.datasource.username=... -Dspring.datasource.password=...
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class UuidInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void randomVersusTimeOrderedKeys() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+
+        run("uuid_bench_v4", rows, UUID::randomUUID);
+        run("uuid_bench_v7", rows, UuidV7Generator::nextUuid);
+    }
+
+    private void run(String table, int rows, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, account_id UUID NOT NULL, "
+                + "amount NUMERIC(15,2) NOT NULL, created_at TIMESTAMP NOT NULL)");
+
+        UUID accountId = UUID.randomUUID();
+        long start = System.nanoTime();
+        for (int done = 0; done < rows; done += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < Math.min(BATCH, rows - done); i++) {
+                batch.add(new Object[] {ids.get(), accountId, new BigDecimal("10.00"),
+                        new Timestamp(System.currentTimeMillis())});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, account_id, amount, created_at) VALUES (?, ?, ?, ?)",
+                    batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+        System.out.printf("uuid benchmark: table=%s rows=%d inserts/sec=%.0f index=%s%n",
+                table, rows, rows / seconds, indexSize(table));
+
+        jdbcTemplate.execute("DROP TABLE " + table);
+    }
+
+    private String indexSize(String table) {
+        Boolean postgres = jdbcTemplate.execute((Connection connection) ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        if (!Boolean.TRUE.equals(postgres)) {
+            return "n/a";
+        }
+        return jdbcTemplate.queryForObject("SELECT pg_size_pretty(pg_relation_size(?::regclass))", String.class,
+                table + "_pkey");
+    }
+}
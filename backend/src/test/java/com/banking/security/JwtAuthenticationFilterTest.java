@@ -0,0 +1,136 @@
+package com.banking.security;
+
+import com.banking.TestDatabase;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.UserService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+public class JwtAuthenticationFilterTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private BranchRepository branchRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // NOT_SUPPORTED tests commit their fixtures; a test transaction rolls back on its own
+    @AfterEach
+    void cleanUpCommittedData() {
+        if (!TestTransaction.isActive()) {
+            TestDatabase.clean(jdbcTemplate);
+        }
+    }
+    
+    @Test
+    public void testControllersUseAuthenticatedPrincipal() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST09", "Test Branch 9", "Test Region"));
+        User user = new User("Principal User", "principal@test.com", "password", "4444444444");
+        user.setUsername("principal-user");
+        user = userRepository.save(user);
+        accountRepository.save(new Account(user, branch, "PRIN001"));
+        entityManager.flush();
+        entityManager.clear();
+        
+        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        
+        // Username differs from email, which the old findByEmail(authentication.getName()) lookup missed
+        mockMvc.perform(get("/account/all").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].accountNumber").value("PRIN001"));
+        
+        // One SELECT in the filter to load the principal, one for the accounts; none in the controller
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    public void testStatelessTokenSkipsUserLookup() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST10", "Test Branch 10", "Test Region"));
+        User user = userRepository.save(new User("Stateless User", "stateless@test.com", "password", "3333333333"));
+        accountRepository.save(new Account(user, branch, "STAT001"));
+        entityManager.flush();
+        entityManager.clear();
+        
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(user));
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        
+        mockMvc.perform(get("/account/all").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].accountNumber").value("STAT001"));
+        
+        // The principal comes from the token's claims: only the account query reaches the database
+        assertEquals(1, statistics.getPrepareStatementCount());
+        
+        // Once the revocation list has seen the deactivation, the same token no longer authenticates
+        userService.deactivateUser(user.getUserId());
+        entityManager.flush();
+        tokenRevocationList.refresh();
+        assertTrue(tokenRevocationList.isRevoked(user.getUserId()));
+        mockMvc.perform(get("/account/all").header("Authorization", "Bearer " + token))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("User not found"));
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testReactivatedUserLeavesRevocationList() {
+        User user = userRepository.save(new User("Revoked User", "revoked@test.com", "password", "4444444444"));
+        
+        // Revoked on this node as soon as the deactivation commits, before any reload
+        userService.deactivateUser(user.getUserId());
+        assertTrue(tokenRevocationList.isRevoked(user.getUserId()));
+        
+        // Reactivated before the next reload, which settles the local entry as well
+        jdbcTemplate.update("UPDATE users SET is_active = true WHERE user_id = ?", user.getUserId());
+        tokenRevocationList.refresh();
+        assertFalse(tokenRevocationList.isRevoked(user.getUserId()));
+    }
+}
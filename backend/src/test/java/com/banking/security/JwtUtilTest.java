@@ -0,0 +1,76 @@
+package com.banking.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The verified-claims cache must never outlive a token or stand in for its signature check
+public class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    private final AuthenticatedUser user =
+            new AuthenticatedUser(UUID.randomUUID(), "cache-user", "cache@test.com", "USER", null, true);
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKey12345678901234567890123456789012");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "streamTokenTtl", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 100);
+        jwtUtil.init();
+    }
+
+    @Test
+    public void cachedTokenIsRejectedAfterExpiry() throws Exception {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 1_000L);
+        String token = jwtUtil.generateToken(user);
+        Claims claims = jwtUtil.extractAllClaims(token);
+        // Served from the cache while it lasts
+        assertSame(claims, jwtUtil.extractAllClaims(token));
+
+        // exp has whole-second precision; wait until it has passed
+        Date expiry = claims.getExpiration();
+        while (!new Date().after(expiry)) {
+            Thread.sleep(50);
+        }
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.extractAllClaims(token));
+        assertFalse(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    public void tamperedTokenIsNeverServedFromCache() {
+        String token = jwtUtil.generateToken(user);
+        jwtUtil.extractAllClaims(token);
+        String[] parts = token.split("\\.");
+
+        // Signature changed at its first character, whose bits all count
+        String signature = (parts[2].charAt(0) == 'A' ? "B" : "A") + parts[2].substring(1);
+        String forged = parts[0] + "." + parts[1] + "." + signature;
+        assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(forged));
+        // A failed check leaves nothing behind to hit next time
+        assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(forged));
+
+        // Claims changed under the cached token's own signature
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"role\":\"USER\"", "\"role\":\"ADMIN\"");
+        String escalated = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(escalated));
+        assertFalse(jwtUtil.validateToken(escalated));
+
+        // The genuine token is still served
+        assertEquals("USER", jwtUtil.extractRole(token));
+    }
+}
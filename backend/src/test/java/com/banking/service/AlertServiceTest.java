@@ -0,0 +1,378 @@
+package com.banking.service;
+
+import com.banking.TestDatabase;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.JwtUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional: the stream and the counters only see alert changes once they commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AlertServiceTest {
+    
+    @Autowired
+    private AlertService alertService;
+    
+    @Autowired
+    private AlertHub alertHub;
+    
+    @Autowired
+    private AlertCounters alertCounters;
+    
+    @Autowired
+    private AlertRepository alertRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private BranchRepository branchRepository;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private WebApplicationContext context;
+    
+    // Opens streams without the default print handler, which reads the response headers while the
+    // hub's sender thread may still be writing them
+    private MockMvc streamMvc;
+    
+    @BeforeEach
+    void setUpStreams() {
+        streamMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestDatabase.clean(jdbcTemplate);
+        alertCounters.reload();
+    }
+    
+    @Test
+    public void testAlertStreamPushesReplaysAndDropsSlowConsoles() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST18", "Test Branch 18", "Test Region"));
+        User admin = new User("Alert Admin", "alert-admin@test.com", "password", "1818181818");
+        admin.setRole(UserRole.ADMIN);
+        userRepository.save(admin);
+        Account account = accountRepository.save(new Account(admin, branch, "STREAM001"));
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(admin));
+        
+        MvcResult live = streamMvc.perform(get("/admin/alerts/stream").header("Authorization", "Bearer " + token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        Matcher ready = Pattern.compile("id:(\\S+)\nevent:ready").matcher(awaitEvent(live, "event:ready"));
+        assertTrue(ready.find());
+        
+        Alert raised = alertService.raiseAlerts(List.of(new Alert(account, null, "Manual review", "MANUAL"))).get(0);
+        mockMvc.perform(post("/admin/alerts/" + raised.getAlertId() + "/resolve").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+        String pushed = awaitEvent(live, "event:resolved");
+        assertTrue(pushed.indexOf("event:created") < pushed.indexOf("event:resolved"));
+        assertTrue(pushed.contains("\"alertId\":\"" + raised.getAlertId() + "\""));
+        
+        // Reconnecting from the ready event replays both changes; an id the hub cannot resume from
+        // is told to reload
+        MvcResult resumed = streamMvc.perform(get("/admin/alerts/stream").header("Authorization", "Bearer " + token)
+                .header("Last-Event-ID", ready.group(1)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String replayed = awaitEvent(resumed, "event:resolved");
+        assertTrue(replayed.contains("event:created"));
+        assertFalse(replayed.contains("event:ready"));
+        MvcResult stale = streamMvc.perform(get("/admin/alerts/stream").header("Authorization", "Bearer " + token)
+                .header("Last-Event-ID", "0-1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        awaitEvent(stale, "event:reset");
+        
+        // A console that stops reading is cut off once its buffer fills; publishing never waits on it
+        CountDownLatch stuck = new CountDownLatch(1);
+        SseEmitter blocked = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    stuck.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+        ReflectionTestUtils.setField(alertHub, "subscriberBuffer", 2);
+        try {
+            int subscribers = alertHub.subscriberCount();
+            alertHub.subscribe(null, blocked);
+            assertEquals(subscribers + 1, alertHub.subscriberCount());
+            for (int i = 0; i < 5; i++) {
+                alertHub.publishAfterCommit("created", List.of(raised));
+            }
+            assertEquals(subscribers, alertHub.subscriberCount());
+        } finally {
+            ReflectionTestUtils.setField(alertHub, "subscriberBuffer", 256);
+            stuck.countDown();
+        }
+        // The live console kept up and got all of them
+        String all = awaitEvent(live, "event:created");
+        for (int i = 0; i < 200 && all.split("event:created", -1).length < 7; i++) {
+            Thread.sleep(25);
+            all = live.getResponse().getContentAsString();
+        }
+        assertEquals(7, all.split("event:created", -1).length);
+    }
+    
+    @Test
+    public void testAlertStreamOpensWithStreamToken() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST20", "Test Branch 20", "Test Region"));
+        User admin = new User("Stream Admin", "stream-admin@test.com", "password", "2020202020");
+        admin.setRole(UserRole.ADMIN);
+        userRepository.save(admin);
+        Account account = accountRepository.save(new Account(admin, branch, "STREAM002"));
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(admin));
+        
+        // EventSource cannot send a header, so the console trades its login token for a stream token
+        MvcResult issued = mockMvc.perform(post("/admin/alerts/stream-token").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andReturn();
+        String streamToken = JsonPath.read(issued.getResponse().getContentAsString(), "$.token");
+        MvcResult live = streamMvc.perform(get("/admin/alerts/stream").param("token", streamToken))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        Matcher ready = Pattern.compile("id:(\\S+)\nevent:ready").matcher(awaitEvent(live, "event:ready"));
+        assertTrue(ready.find());
+        
+        // A new EventSource resumes from the id it last saw, passed as a parameter
+        alertService.raiseAlerts(List.of(new Alert(account, null, "Stream review", "STREAM")));
+        MvcResult resumed = streamMvc.perform(get("/admin/alerts/stream").param("token", streamToken)
+                .param("lastEventId", ready.group(1)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        awaitEvent(resumed, "\"message\":\"Stream review\"");
+        
+        // Login tokens are not taken from the URL, and stream tokens open nothing but the stream
+        mockMvc.perform(get("/admin/alerts/stream").param("token", token))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(post("/admin/alerts/stream-token").header("Authorization", "Bearer " + streamToken))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin/alerts/stream").header("Authorization", "Bearer " + streamToken))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    public void testAlertQueuePagesByFilterAndKeepsCountsInMemory() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST19", "Test Branch 19", "Test Region"));
+        User admin = new User("Queue Admin", "queue-admin@test.com", "password", "1919191919");
+        admin.setRole(UserRole.ADMIN);
+        userRepository.save(admin);
+        Account first = accountRepository.save(new Account(admin, branch, "QUEUE001"));
+        Account second = accountRepository.save(new Account(admin, branch, "QUEUE002"));
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(admin));
+        
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            alerts.add(new Alert(first, null, "Queue review " + i, "QUEUE_A"));
+        }
+        alerts.add(new Alert(second, null, "Queue review 5", "QUEUE_B"));
+        alerts.add(new Alert(second, null, "Queue review 6", "QUEUE_B"));
+        alerts.add(new Alert(second, null, "Queue review 7", "QUEUE_A"));
+        alertService.raiseAlerts(alerts);
+        assertEquals(5L, alertService.getUnresolvedAlertCount(first.getAccountId()));
+        assertEquals(3L, alertService.getUnresolvedAlertCount(second.getAccountId()));
+        assertEquals(6L, alertService.getUnresolvedAlertCounts().get("QUEUE_A"));
+        
+        // Pages of two walk all six QUEUE_A alerts newest first, without repeats
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var page = mockMvc.perform(get("/admin/transactions/alerts").header("Authorization", "Bearer " + token)
+                    .param("type", "QUEUE_A").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unresolvedByType.QUEUE_B").value(2))
+                .andReturn().getResponse().getContentAsString();
+            List<String> ids = JsonPath.read(page, "$.alerts[*].alertId");
+            List<String> created = JsonPath.read(page, "$.alerts[*].createdAt");
+            assertTrue(ids.size() <= 2);
+            seen.addAll(ids);
+            for (int i = 1; i < created.size(); i++) {
+                assertTrue(created.get(i - 1).compareTo(created.get(i)) >= 0);
+            }
+            cursor = JsonPath.read(page, "$.next");
+        } while (cursor != null);
+        assertEquals(6, seen.size());
+        assertEquals(6, new HashSet<>(seen).size());
+        
+        mockMvc.perform(get("/admin/transactions/alerts").header("Authorization", "Bearer " + token)
+                .param("type", "QUEUE_A").param("accountId", second.getAccountId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.alerts.length()").value(1))
+            .andExpect(jsonPath("$.alerts[0].accountNumber").value("QUEUE002"))
+            .andExpect(jsonPath("$.next").doesNotExist());
+        mockMvc.perform(get("/admin/transactions/alerts").header("Authorization", "Bearer " + token)
+                .param("accountId", first.getAccountId().toString())
+                .param("from", LocalDateTime.now().plusHours(1).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.alerts.length()").value(0));
+        mockMvc.perform(get("/admin/transactions/alerts").header("Authorization", "Bearer " + token)
+                .param("limit", "0"))
+            .andExpect(status().isBadRequest());
+        
+        // Resolving moves the counts once, however often it is repeated
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/admin/alerts/" + seen.get(0) + "/resolve").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        }
+        assertEquals(5L, alertService.getUnresolvedAlertCounts().get("QUEUE_A"));
+        
+        // Concurrent resolves of one alert move the counts once as well
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> resolvers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread resolver = new Thread(() -> {
+                try {
+                    start.await();
+                    alertService.resolveAlert(UUID.fromString(seen.get(1)), admin);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            resolver.start();
+            resolvers.add(resolver);
+        }
+        start.countDown();
+        for (Thread resolver : resolvers) {
+            resolver.join();
+        }
+        assertEquals(4L, alertService.getUnresolvedAlertCounts().get("QUEUE_A"));
+        long firstCount = alertService.getUnresolvedAlertCount(first.getAccountId());
+        long secondCount = alertService.getUnresolvedAlertCount(second.getAccountId());
+        assertEquals(6, firstCount + secondCount);
+        mockMvc.perform(get("/admin/transactions/alerts").header("Authorization", "Bearer " + token)
+                .param("resolved", "true").param("type", "QUEUE_A"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.alerts.length()").value(2));
+        
+        // A reload from the table agrees with the counts kept in memory
+        alertCounters.reload();
+        assertEquals(4L, alertService.getUnresolvedAlertCounts().get("QUEUE_A"));
+        assertEquals(2L, alertService.getUnresolvedAlertCounts().get("QUEUE_B"));
+        assertEquals(firstCount, alertService.getUnresolvedAlertCount(first.getAccountId()));
+        assertEquals(secondCount, alertService.getUnresolvedAlertCount(second.getAccountId()));
+    }
+    
+    @Test
+    public void testBulkAlertResolutionByIdsAndFilterInChunks() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST20", "Test Branch 20", "Test Region"));
+        User admin = new User("Bulk Admin", "bulk-admin@test.com", "password", "2020202020");
+        admin.setRole(UserRole.ADMIN);
+        userRepository.save(admin);
+        Account account = accountRepository.save(new Account(admin, branch, "BULK001"));
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(admin));
+        
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            alerts.add(new Alert(account, null, "Bulk review " + i, "BULK_A"));
+        }
+        alerts.add(new Alert(account, null, "Bulk review 7", "BULK_B"));
+        alerts.add(new Alert(account, null, "Bulk review 8", "BULK_B"));
+        List<UUID> ids = alertService.raiseAlerts(alerts).stream().map(Alert::getAlertId).toList();
+        mockMvc.perform(post("/admin/alerts/" + ids.get(0) + "/resolve").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+        
+        AlertService target = AopTestUtils.getTargetObject(alertService);
+        ReflectionTestUtils.setField(target, "resolveChunkSize", 3);
+        try {
+            // Duplicates collapse; the already resolved and the unknown id are skipped
+            mockMvc.perform(post("/admin/alerts/resolve").header("Authorization", "Bearer " + token)
+                    .contentType("application/json")
+                    .content("{\"alertIds\":[\"" + ids.get(0) + "\",\"" + ids.get(1) + "\",\"" + ids.get(1) + "\",\""
+                            + ids.get(2) + "\",\"" + UUID.randomUUID() + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolved").value(2))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.chunks").value(2));
+            
+            // The filter works off the remaining four BULK_A alerts, three at a time
+            mockMvc.perform(post("/admin/alerts/resolve").header("Authorization", "Bearer " + token)
+                    .contentType("application/json")
+                    .content("{\"alertType\":\"BULK_A\",\"accountId\":\"" + account.getAccountId() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolved").value(4))
+                .andExpect(jsonPath("$.skipped").value(0))
+                .andExpect(jsonPath("$.chunks").value(2));
+        } finally {
+            ReflectionTestUtils.setField(target, "resolveChunkSize", 500);
+        }
+        
+        mockMvc.perform(post("/admin/alerts/resolve").header("Authorization", "Bearer " + token)
+                .contentType("application/json")
+                .content("{\"alertIds\":[\"" + ids.get(7) + "\"],\"alertType\":\"BULK_B\"}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/admin/alerts/resolve").header("Authorization", "Bearer " + token)
+                .contentType("application/json").content("{}"))
+            .andExpect(status().isBadRequest());
+        
+        for (Alert alert : alertRepository.findAlertsByAccountId(account.getAccountId())) {
+            boolean bulk = "BULK_A".equals(alert.getAlertType());
+            assertEquals(bulk, alert.getIsResolved());
+            assertEquals(bulk, alert.getResolvedAt() != null);
+        }
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alerts WHERE account_id = ? AND resolved_by = ?",
+                Long.class, account.getAccountId(), admin.getUserId()));
+        assertNull(alertService.getUnresolvedAlertCounts().get("BULK_A"));
+        assertEquals(2L, alertService.getUnresolvedAlertCounts().get("BULK_B"));
+        assertEquals(2L, alertService.getUnresolvedAlertCount(account.getAccountId()));
+    }
+    
+    private static String awaitEvent(MvcResult result, String expected) throws Exception {
+        for (int i = 0; i < 200 && !result.getResponse().getContentAsString().contains(expected); i++) {
+            Thread.sleep(25);
+        }
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
@@ -0,0 +1,223 @@
+package com.banking.service;
+
+import com.banking.dto.ExpenseImportReport;
+import com.banking.dto.ExpenseTotal;
+import com.banking.model.Expense;
+import com.banking.model.User;
+import com.banking.repository.ExpenseRepository;
+import com.banking.repository.UserRepository;
+import com.banking.security.AuthenticatedUser;
+import com.banking.security.JwtUtil;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+public class ExpenseServiceTest {
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Test
+    public void testExpenseSummariesReadRollups() {
+        User user = userRepository.save(new User("Expense User", "expense@test.com", "password", "1414141414"));
+        LocalDate today = LocalDate.now();
+        LocalDate lastMonth = today.minusMonths(1).withDayOfMonth(3);
+        
+        expenseService.addExpense(user, lastMonth, "FOOD", new BigDecimal("10.00"), "");
+        expenseService.addExpense(user, lastMonth, "FOOD", new BigDecimal("15.50"), "");
+        expenseService.addExpense(user, lastMonth, "RENT", new BigDecimal("500.00"), "");
+        expenseService.addExpense(user, today, "FOOD", new BigDecimal("7.25"), "");
+        entityManager.flush();
+        entityManager.clear();
+        
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Map<String, BigDecimal> monthly = expenseService.getMonthlySummary(user, 6);
+        // Monthly rollup for past months, daily rollup for the current one; no expense rows loaded
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Expense.class.getName()).getLoadCount());
+        assertEquals(0, new BigDecimal("525.50").compareTo(monthly.get(YearMonth.from(lastMonth).toString())));
+        assertEquals(0, new BigDecimal("7.25").compareTo(monthly.get(YearMonth.from(today).toString())));
+        
+        Map<Integer, BigDecimal> daily = expenseService.getDailySummaryForMonth(user, YearMonth.from(lastMonth));
+        assertEquals(1, daily.size());
+        assertEquals(0, new BigDecimal("525.50").compareTo(daily.get(3)));
+        
+        // Rows written around addExpense are picked up by a rebuild
+        Expense imported = new Expense();
+        imported.setUser(user);
+        imported.setDate(lastMonth.plusDays(1));
+        imported.setCategory("TRAVEL");
+        imported.setAmount(new BigDecimal("40.00"));
+        expenseRepository.save(imported);
+        entityManager.flush();
+        entityManager.clear();
+        expenseRollupService.rebuildUser(user.getUserId());
+        entityManager.flush();
+        entityManager.clear();
+        
+        monthly = expenseService.getMonthlySummary(user, 6);
+        assertEquals(0, new BigDecimal("565.50").compareTo(monthly.get(YearMonth.from(lastMonth).toString())));
+        daily = expenseService.getDailySummaryForMonth(user, YearMonth.from(lastMonth));
+        assertEquals(0, new BigDecimal("40.00").compareTo(daily.get(4)));
+    }
+    
+    @Test
+    public void testExpenseAggregatesGroupInDatabase() {
+        User user = userRepository.save(new User("Aggregate User", "aggregate@test.com", "password", "1515151515"));
+        LocalDate today = LocalDate.now();
+        LocalDate lastMonth = today.minusMonths(1).withDayOfMonth(5);
+        expenseService.addExpense(user, lastMonth, "FOOD", new BigDecimal("10.00"), "");
+        expenseService.addExpense(user, lastMonth, "FOOD", new BigDecimal("2.50"), "");
+        expenseService.addExpense(user, lastMonth, "RENT", new BigDecimal("300.00"), "");
+        expenseService.addExpense(user, today, "FOOD", new BigDecimal("4.00"), "");
+        entityManager.flush();
+        entityManager.clear();
+        
+        List<ExpenseTotal> months = expenseRepository.sumByMonthAndCategory(user.getUserId(), lastMonth.withDayOfMonth(1), today);
+        assertEquals(3, months.size());
+        ExpenseTotal food = months.stream()
+            .filter(t -> t.getBucket().equals(lastMonth.withDayOfMonth(1)) && "FOOD".equals(t.getCategory()))
+            .findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("12.50").compareTo(food.getTotal()));
+        assertEquals(2L, food.getCount());
+        
+        Map<String, BigDecimal> fromRollups = expenseService.getMonthlySummary(user, 6);
+        Map<Integer, BigDecimal> dailyFromRollups = expenseService.getDailySummaryForMonth(user, YearMonth.from(lastMonth));
+        
+        ExpenseService target = AopTestUtils.getTargetObject(expenseService);
+        ReflectionTestUtils.setField(target, "rollupsEnabled", false);
+        try {
+            Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            Map<String, BigDecimal> grouped = expenseService.getMonthlySummary(user, 6);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            
+            assertEquals(fromRollups.keySet(), grouped.keySet());
+            grouped.forEach((month, total) -> assertEquals(0, total.compareTo(fromRollups.get(month))));
+            Map<Integer, BigDecimal> daily = expenseService.getDailySummaryForMonth(user, YearMonth.from(lastMonth));
+            assertEquals(1, daily.size());
+            assertEquals(0, dailyFromRollups.get(5).compareTo(daily.get(5)));
+        } finally {
+            ReflectionTestUtils.setField(target, "rollupsEnabled", true);
+        }
+    }
+    
+    @Test
+    public void testExpenseImportBatchesRowsAndReportsErrors() throws Exception {
+        User user = userRepository.save(new User("Import User", "import@test.com", "password", "1616161616"));
+        entityManager.flush();
+        String token = jwtUtil.generateToken(AuthenticatedUser.from(user));
+        LocalDate day = LocalDate.now().minusMonths(1).withDayOfMonth(7);
+        
+        String csv = "date,category,amount,note\n"
+            + day + ",FOOD,12.50,lunch\n"
+            + day + ",FOOD,7.50,\"coffee, \"\"large\"\"\"\n"
+            + "\n"
+            + "not-a-date,FOOD,1.00,\n"
+            + day + ",RENT,-5,\n"
+            + day + ",RENT,\"300.00\n"
+            + day.plusDays(1) + ",RENT,300.00,\n";
+        mockMvc.perform(post("/expense/import").header("Authorization", "Bearer " + token)
+                .contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(6))
+            .andExpect(jsonPath("$.imported").value(3))
+            .andExpect(jsonPath("$.rejected").value(3))
+            .andExpect(jsonPath("$.errors[0].line").value(5))
+            .andExpect(jsonPath("$.errors[0].message").value("date must be YYYY-MM-DD"))
+            .andExpect(jsonPath("$.errors[1].message").value("Amount must be positive"))
+            .andExpect(jsonPath("$.errors[2].message").value("Unterminated quoted field"));
+        
+        String ndjson = "{\"date\":\"" + day + "\",\"category\":\"TRAVEL\",\"amount\":20}\n"
+            + "{\"date\":\"" + day + "\",\"category\":\"TRAVEL\"}\n"
+            + "[1,2]\n";
+        ExpenseImportReport report = expenseService.importExpenses(user, "ndjson",
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals("amount is required", report.getErrors().get(0).getMessage());
+        
+        // Imported rows are in the rollups as well as the table
+        entityManager.clear();
+        assertEquals(4, expenseRepository.findForUserInRange(user, day, day.plusDays(1)).size());
+        assertEquals("coffee, \"large\"", expenseRepository.findForUserInRange(user, day, day).stream()
+            .filter(e -> new BigDecimal("7.50").compareTo(e.getAmount()) == 0).findFirst().orElseThrow().getNote());
+        Map<Integer, BigDecimal> daily = expenseService.getDailySummaryForMonth(user, YearMonth.from(day));
+        assertEquals(0, new BigDecimal("40.00").compareTo(daily.get(7)));
+        assertEquals(0, new BigDecimal("300.00").compareTo(daily.get(8)));
+    }
+    
+    @Test
+    public void testExpenseImportStripsBomAndCapsLineLength() throws Exception {
+        User user = userRepository.save(new User("Bom User", "bom@test.com", "password", "1717171717"));
+        entityManager.flush();
+        LocalDate day = LocalDate.now().minusMonths(1).withDayOfMonth(9);
+        
+        String csv = "\uFEFFdate,category,amount,note\r\n"
+            + day + ",FOOD,12.50," + "x".repeat(5000) + "\r\n"
+            + day + ",FOOD,3.00,tea\r\n";
+        ExpenseImportReport report = expenseService.importExpenses(user, "csv",
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("Line is longer than 4096 characters", report.getErrors().get(0).getMessage());
+        
+        String ndjson = "\uFEFF{\"date\":\"" + day + "\",\"category\":\"TRAVEL\",\"amount\":20}\n";
+        report = expenseService.importExpenses(user, "ndjson",
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, report.getImported());
+        
+        RuntimeException header = assertThrows(RuntimeException.class, () -> expenseService.importExpenses(user, "csv",
+            new ByteArrayInputStream(("date," + "y".repeat(5000) + "\n").getBytes(StandardCharsets.UTF_8))));
+        assertEquals("CSV header is longer than 4096 characters", header.getMessage());
+    }
+}
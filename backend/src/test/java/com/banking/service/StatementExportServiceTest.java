@@ -0,0 +1,59 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.*;
+import com.banking.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class StatementExportServiceTest {
+    
+    @Autowired
+    private StatementExportService statementExportService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private BranchRepository branchRepository;
+    
+    @Test
+    public void testStatementCsvNeutralisesFormulas() throws Exception {
+        Branch branch = branchRepository.save(new Branch("TEST21", "Test Branch 21", "Test Region"));
+        User user = userRepository.save(new User("Export User", "export@test.com", "password", "5555555555"));
+        Account account = accountRepository.save(new Account(user, branch, "EXPORT001"));
+        UUID accountId = account.getAccountId();
+        transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("10.00"), "=HYPERLINK(\"http://x\",\"y\")"));
+        transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("10.00"), "@SUM(A1)"));
+        transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("10.00"), "-2+3"));
+        transactionService.deposit(new TransactionRequest(accountId, new BigDecimal("10.00"), "Salary"));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4, statementExportService.export(accountId, LocalDate.now(), LocalDate.now(), "csv", out));
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"\n"), csv);
+        assertTrue(csv.contains(",'@SUM(A1)\n"), csv);
+        assertTrue(csv.contains(",'-2+3\n"), csv);
+        assertTrue(csv.contains(",Salary\n"), csv);
+    }
+}
@@ -0,0 +1,123 @@
+package com.banking.service.fraud;
+
+import com.banking.TestDatabase;
+import com.banking.dto.FraudReplayReport;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.*;
+import com.banking.repository.*;
+import com.banking.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the rules only see postings once they commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class FraudRuleEngineTest {
+    
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private AlertRepository alertRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private BranchRepository branchRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Lets the worker finish what it has queued before the rows it reads go away
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        for (int i = 0; i < 100 && fraudRuleEngine.pending() > 0; i++) {
+            Thread.sleep(50);
+        }
+        TestDatabase.clean(jdbcTemplate);
+    }
+    
+    @Test
+    public void testFraudRulesRaiseAlertsAfterCommit() throws Exception {
+        LocalDateTime start = LocalDateTime.now();
+        Branch branch = branchRepository.save(new Branch("TEST17", "Test Branch 17", "Test Region"));
+        User user = userRepository.save(new User("Fraud User", "fraud@test.com", "password", "1717171717"));
+        Account payer = new Account(user, branch, "FRAUD001");
+        payer.setBalance(new BigDecimal("100000.00"));
+        accountRepository.save(payer);
+        List<Account> payees = new ArrayList<>();
+        for (int i = 2; i <= 5; i++) {
+            payees.add(accountRepository.save(new Account(user, branch, "FRAUD00" + i)));
+        }
+        
+        // A large transfer, three round transfers to payees never paid before, then deposits up to
+        // ten postings on the payer's account
+        transactionService.transfer(payer.getAccountId(), payees.get(0).getAccountId(), new BigDecimal("15000.50"), "Large");
+        for (int i = 1; i <= 3; i++) {
+            transactionService.transfer(payer.getAccountId(), payees.get(i).getAccountId(), new BigDecimal(i * 1000), "Round " + i);
+        }
+        for (int i = 0; i < 6; i++) {
+            transactionService.deposit(new TransactionRequest(payer.getAccountId(), new BigDecimal("10.25"), "Top-up"));
+        }
+        
+        // Alerts are written by the rule worker, after the postings commit
+        List<Alert> alerts = alertRepository.findAlertsByAccountId(payer.getAccountId());
+        for (int i = 0; i < 200 && (alerts.size() < 4 || fraudRuleEngine.pending() > 0); i++) {
+            Thread.sleep(50);
+            alerts = alertRepository.findAlertsByAccountId(payer.getAccountId());
+        }
+        Map<String, String> byType = new HashMap<>();
+        alerts.forEach(alert -> byType.put(alert.getAlertType(), alert.getMessage()));
+        assertEquals(4, alerts.size());
+        assertEquals(Set.of("LARGE_AMOUNT", "NEW_PAYEE_BURST", "ROUND_AMOUNTS", "HIGH_VELOCITY"), byType.keySet());
+        assertEquals("3 new payees within 30 minutes", byType.get("NEW_PAYEE_BURST"));
+        assertEquals("10 postings within 10 minutes", byType.get("HIGH_VELOCITY"));
+        assertEquals(List.of("LARGE_AMOUNT"), alertRepository.findAlertsByAccountId(payees.get(0).getAccountId())
+            .stream().map(Alert::getAlertType).toList());
+        assertTrue(meterRegistry.get("banking.fraud.rule.latency").tag("rule", "HIGH_VELOCITY").timer().count() >= 14);
+        
+        // Replaying the same postings finds the same alerts without writing any
+        FraudReplayReport report = fraudRuleEngine.replay(start, LocalDateTime.now().plusSeconds(1));
+        assertEquals(14, report.getPostings());
+        assertEquals(Map.of("LARGE_AMOUNT", 2L, "NEW_PAYEE_BURST", 1L, "ROUND_AMOUNTS", 1L, "HIGH_VELOCITY", 1L),
+            report.getFindingsByRule());
+        assertEquals(4, report.getMeanMicrosByRule().size());
+        assertEquals(4, alertRepository.findAlertsByAccountId(payer.getAccountId()).size());
+        
+        // A window that opens on the tenth posting is seeded with the ones before it, as the live
+        // context is at startup, so the velocity alert is still found
+        LocalDateTime last = jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM transactions WHERE account_id = ?",
+            Timestamp.class, payer.getAccountId()).toLocalDateTime();
+        FraudReplayReport tail = fraudRuleEngine.replay(last, LocalDateTime.now().plusSeconds(1));
+        assertTrue(tail.getPostings() < 14);
+        assertEquals(1L, tail.getFindingsByRule().get("HIGH_VELOCITY"));
+    }
+}
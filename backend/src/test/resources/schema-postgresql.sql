@@ -0,0 +1,5 @@
+-- PostgreSQL stand-ins for the enum types referenced by @Column(columnDefinition = ...), for
+-- PostgresPostingTest; an existing type makes its statement fail, which the test ignores
+CREATE DOMAIN transaction_type AS VARCHAR(20);
+CREATE DOMAIN transaction_status AS VARCHAR(20);
+CREATE DOMAIN loan_status AS VARCHAR(20);
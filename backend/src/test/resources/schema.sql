@@ -0,0 +1,4 @@
+-- H2 stand-ins for the PostgreSQL enum types referenced by @Column(columnDefinition = ...)
+CREATE DOMAIN IF NOT EXISTS transaction_type AS VARCHAR(20);
+CREATE DOMAIN IF NOT EXISTS transaction_status AS VARCHAR(20);
+CREATE DOMAIN IF NOT EXISTS loan_status AS VARCHAR(20);
@@ -5,6 +5,8 @@ import axios from 'axios';
 const AdminDashboard = () => {
   const [pendingLoans, setPendingLoans] = useState([]);
   const [alerts, setAlerts] = useState([]);
+  const [alertsNext, setAlertsNext] = useState(null);
+  const [unresolvedCount, setUnresolvedCount] = useState(0);
   const [highValueTransactions, setHighValueTransactions] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
@@ -20,6 +22,77 @@ const AdminDashboard = () => {
     fetchHighValueTransactions();
   }, []);
 
+  // Follow alert changes instead of polling. EventSource cannot send the Authorization header, so
+  // each connection opens with a short-lived stream token. The browser's own reconnects reuse the
+  // URL and fail once that token has expired; then a new token is fetched and the new connection
+  // resumes from the last event seen.
+  useEffect(() => {
+    let source = null;
+    let lastEventId = null;
+    let retry = null;
+    let reload = null;
+    let stopped = false;
+
+    const track = (event) => {
+      if (event.lastEventId) {
+        lastEventId = event.lastEventId;
+      }
+    };
+
+    const connect = async () => {
+      try {
+        const response = await axios.post('/api/admin/alerts/stream-token');
+        if (stopped) {
+          return;
+        }
+        const params = new URLSearchParams({ token: response.data.token });
+        if (lastEventId) {
+          params.set('lastEventId', lastEventId);
+        }
+        source = new EventSource(`/api/admin/alerts/stream?${params}`);
+        source.addEventListener('ready', track);
+        source.addEventListener('created', (event) => {
+          track(event);
+          setUnresolvedCount((count) => count + 1);
+          // A burst of new alerts reloads the first page once
+          clearTimeout(reload);
+          reload = setTimeout(() => fetchAlerts(), 1000);
+        });
+        source.addEventListener('resolved', (event) => {
+          track(event);
+          const resolved = JSON.parse(event.data);
+          setAlerts((previous) => previous.filter((alert) => alert.alertId !== resolved.alertId));
+          setUnresolvedCount((count) => Math.max(0, count - 1));
+        });
+        // Too far behind to replay: start over from the alert list
+        source.addEventListener('reset', (event) => {
+          track(event);
+          fetchAlerts();
+        });
+        source.onerror = () => {
+          if (source.readyState === EventSource.CLOSED && !stopped) {
+            retry = setTimeout(connect, 5000);
+          }
+        };
+      } catch (error) {
+        console.error('Failed to open the alert stream:', error);
+        if (!stopped) {
+          retry = setTimeout(connect, 5000);
+        }
+      }
+    };
+
+    connect();
+    return () => {
+      stopped = true;
+      clearTimeout(retry);
+      clearTimeout(reload);
+      if (source) {
+        source.close();
+      }
+    };
+  }, []);
+
   const fetchPendingLoans = async () => {
     try {
       const response = await axios.get('/api/admin/loans/pending');
@@ -31,10 +104,13 @@ const AdminDashboard = () => {
     }
   };
 
-  const fetchAlerts = async () => {
+  // First page, or the page after `cursor` appended to the ones already shown
+  const fetchAlerts = async (cursor) => {
     try {
-      const response = await axios.get('/api/admin/transactions/alerts');
-      setAlerts(response.data);
+      const response = await axios.get('/api/admin/transactions/alerts', { params: { cursor } });
+      setAlerts(cursor ? (previous) => [...previous, ...response.data.alerts] : response.data.alerts);
+      setAlertsNext(response.data.next);
+      setUnresolvedCount(response.data.unresolved);
     } catch (error) {
       console.error('Failed to fetch alerts:', error);
     }
@@ -102,7 +178,7 @@ const AdminDashboard = () => {
         <Col md={4}>
           <Card className="text-center">
             <Card.Body>
-              <h3 className="text-warning">{alerts.length}</h3>
+              <h3 className="text-warning">{unresolvedCount}</h3>
               <p>Unresolved Alerts</p>
             </Card.Body>
           </Card>
@@ -185,7 +261,7 @@ const AdminDashboard = () => {
                   <tbody>
                     {alerts.map((alert) => (
                       <tr key={alert.alertId}>
-                        <td>{alert.account?.accountNumber || 'N/A'}</td>
+                        <td>{alert.accountNumber || 'N/A'}</td>
                         <td>{alert.message}</td>
                         <td>
                           <span className="badge bg-warning">{alert.alertType}</span>
@@ -207,6 +283,11 @@ const AdminDashboard = () => {
               ) : (
                 <p>No unresolved alerts.</p>
               )}
+              {alertsNext && (
+                <Button variant="outline-secondary" size="sm" onClick={() => fetchAlerts(alertsNext)}>
+                  Load more
+                </Button>
+              )}
             </Card.Body>
           </Card>
         </Col>